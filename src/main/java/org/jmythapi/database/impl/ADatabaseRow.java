@@ -20,7 +20,6 @@
 package org.jmythapi.database.impl;
 
 import java.lang.reflect.Constructor;
-import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -28,6 +27,7 @@ import org.jmythapi.IVersionable;
 import org.jmythapi.database.DatabaseVersion;
 import org.jmythapi.database.utils.EnumUtils;
 import org.jmythapi.impl.AData;
+import org.jmythapi.impl.CopyOnWriteArgumentList;
 import org.jmythapi.protocol.ProtocolVersion;
 import org.jmythapi.utils.EncodingUtils;
 
@@ -118,7 +118,7 @@ public abstract class ADatabaseRow <E extends Enum<E>> extends AData<E> implemen
 			
 			// create a new instance
 			final Object clonedObject = constructor.newInstance(
-				this.protoVersion, this.dbVersion, new ArrayList<String>(this.respArgs)
+				this.protoVersion, this.dbVersion, CopyOnWriteArgumentList.snapshotOf(this.respArgs)
 			);
 			return clonedObject;
 		} catch (Throwable e) {
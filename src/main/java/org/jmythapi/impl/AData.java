@@ -22,13 +22,13 @@ package org.jmythapi.impl;
 import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Constructor;
 import java.sql.Time;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.jmythapi.IPropertyAware;
@@ -73,10 +73,24 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 	/**
 	 * The values of all data properties.
 	 * <p>
-	 * This list has a fixed size.
+	 * This list has a fixed size. After initialization this is a {@link CopyOnWriteArgumentList}, 
+	 * which allows to create cheap copies of this object via {@link #clone()}.
 	 */	
 	protected List<String> respArgs;
 	
+	/**
+	 * A cache for the constructors used by {@link #clone()}.
+	 */
+	private static final Map<Class<?>,Constructor<?>> cloneConstructors = new ConcurrentHashMap<Class<?>,Constructor<?>>();
+	
+	/**
+	 * The cached result of {@link #hashCode()}.
+	 * <p>
+	 * The upper 32 bits contain the {@link #getPropertyValuesModCount() modification counter} plus one, 
+	 * the lower 32 bits contain the hash code. A value of {@code 0} means that no hash code was cached.
+	 */
+	private volatile long cachedHashCode;
+	
 	/**
 	 * Initializes this object with all mandatory values.
 	 * 
@@ -103,6 +117,9 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 		
 		// post process arguments after init
 		this.postProcessArguments();
+		
+		// use a copy-on-write list to store the arguments
+		this.respArgs = CopyOnWriteArgumentList.valueOf(this.respArgs);
 	}
 	
 	protected void postProcessArguments() {
@@ -136,6 +153,23 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 		return this.respArgs;
 	}		
 	
+	/**
+	 * Returns the modification counter of the property values.
+	 * <p>
+	 * This counter is changed whenever a property value is changed, either via this object 
+	 * or via another object sharing the same values. It can be used to cache values derived 
+	 * from the property values.
+	 * 
+	 * @return
+	 * 		the modification counter or {@code -1} if changes can not be tracked
+	 */
+	protected int getPropertyValuesModCount() {
+		if(this.respArgs instanceof CopyOnWriteArgumentList) {
+			return ((CopyOnWriteArgumentList)this.respArgs).getModCount();
+		}
+		return -1;
+	}
+	
 	public String getPropertyValue(int propIdx) {
 		if (propIdx < 0) throw new IndexOutOfBoundsException();
 		
@@ -276,6 +310,10 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 	
 	/**
 	 * Creates a copy of this object.
+	 * <p>
+	 * The copy shares the property values with this object until a property value is 
+	 * changed in one of the two objects.
+	 * 
 	 * @return
 	 * 		a copy of this object
 	 */
@@ -286,11 +324,15 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 			final Class<?> cloneClass = this.getClass();
 			
 			// determine the constructor to use
-			final Constructor<?> constructor = cloneClass.getConstructor(ProtocolVersion.class, List.class);
+			Constructor<?> constructor = cloneConstructors.get(cloneClass);
+			if(constructor == null) {
+				constructor = cloneClass.getConstructor(ProtocolVersion.class, List.class);
+				cloneConstructors.put(cloneClass, constructor);
+			}
 			
 			// create a new instance
 			final Object clonedObject = constructor.newInstance(
-				this.protoVersion, new ArrayList<String>(this.respArgs)
+				this.protoVersion, CopyOnWriteArgumentList.snapshotOf(this.respArgs)
 			);
 			return clonedObject;
 		} catch (Throwable e) {
@@ -318,10 +360,14 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 	@Override
 	public boolean equals(Object obj) {
 		if(obj == null) return false;
+		else if(obj == this) return true;
 		else if(!obj.getClass().equals(this.getClass())) return false;
 		
 		final AData<?> otherData = (AData<?>) obj;
 		
+		// the cached hash codes allow to detect most inequalities fast
+		if(otherData.hashCode() != this.hashCode()) return false;
+		
 		// check for same version
 		if(otherData.protoVersion == null && this.protoVersion != null) return false;
 		else if(otherData.protoVersion != null && this.protoVersion == null) return false;
@@ -343,16 +389,27 @@ public abstract class AData <E extends Enum<E>> implements Cloneable, IPropertyA
 	 * Generates a hashCode for this object.
 	 * <p>
 	 * This is required when using this object as a key in a {@link Map map}.
+	 * The hash code is cached until a property value is changed.
 	 * 
 	 * @return
 	 * 		the hash code
 	 */
 	@Override
 	public int hashCode() {
+		final int modCount = this.getPropertyValuesModCount();
+		final long cached = this.cachedHashCode;
+		if(modCount != -1 && cached != 0 && (int)(cached >>> 32) == modCount + 1) {
+			return (int) cached;
+		}
+		
 		int hashCode = 0;
 		if(this.protoVersion != null) hashCode += this.protoVersion.hashCode();
 		if(this.propsClass != null) hashCode += this.propsClass.hashCode();
 		if(this.respArgs != null) hashCode += this.respArgs.hashCode();
+		
+		if(modCount != -1) {
+			this.cachedHashCode = ((long)(modCount + 1) << 32) | (hashCode & 0xFFFFFFFFL);
+		}
 		return hashCode;
 	}
 	
@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.impl;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A fixed-size argument list with copy-on-write semantics.
+ * <p>
+ * This list is used by {@link AData} to store the property values. It behaves like a
+ * fixed size list, e.g. a list returned by {@link Arrays#asList(Object...)}:
+ * <ul>
+ * 	<li>{@link #subList(int, int) Sub-lists} are views and share the values with this list.
+ *      Changing a value in a sub-list changes the value in this list and vice versa.</li>
+ * 	<li>{@link #snapshot() Snapshots} are independent copies. Snapshots share the
+ *      underlying array with this list until a value is changed in one of the lists.
+ *      Creating a snapshot therefore only costs a few object allocations.</li>
+ * 	<li>Sub-lists can be {@link #moveBy(int) moved} to another range of this list. This allows
+ *      to iterate over a list of equally sized records using a single view.</li>
+ * 	<li>{@link #valueOf(int, IArgumentSource) Lazy lists} fetch each value from a source on first access,
+ *      e.g. from a memory mapped file.</li>
+ * </ul>
+ * <p>
+ * Changed values are never written into an array while it is shared, therefore snapshots
+ * can be handed out to other threads safely. The only exception are lazy lists: a value fetched
+ * from the source is stored in the shared array, replacing the marker of the unresolved slot.
+ * All lists sharing the array fetch the same value from the same source, therefore concurrent
+ * readers either see the marker and fetch the value themselves or see the fetched value.
+ */
+public final class CopyOnWriteArgumentList extends AbstractList<String> implements RandomAccess {
+	/**
+	 * A source of argument values, used by lazy lists.
+	 */
+	public static interface IArgumentSource {
+		/**
+		 * Gets the value of an argument.
+		 * <p>
+		 * This function may be called concurrently by multiple threads.
+		 *
+		 * @param index
+		 * 		the index of the argument
+		 * @return
+		 * 		the argument value
+		 */
+		public String get(int index);
+	}
+
+	/**
+	 * A marker for values that were not fetched from the {@link IArgumentSource source} so far.
+	 */
+	private static final String UNRESOLVED = new String("");
+
+	/**
+	 * An immutable pair of an argument array and the absolute index of its first element.
+	 */
+	private static final class Segment {
+		final String[] values;
+		final int base;
+
+		/**
+		 * The source of {@link #UNRESOLVED unresolved} values or {@code null}.
+		 */
+		final IArgumentSource source;
+
+		Segment(String[] values, int base, IArgumentSource source) {
+			this.values = values;
+			this.base = base;
+			this.source = source;
+		}
+	}
+
+	/**
+	 * The storage shared by a list and all its sub-lists.
+	 */
+	private static final class Store {
+		/**
+		 * The current argument array.
+		 */
+		volatile Segment segment;
+
+		/**
+		 * The absolute range of arguments owned by this store.
+		 */
+		final int from, to;
+
+		/**
+		 * If {@code true} the argument array is shared with another store
+		 * and needs to be copied before changing a value.
+		 */
+		boolean shared;
+
+		/**
+		 * The amount of value changes.
+		 */
+		volatile int modCount;
+
+		Store(Segment segment, int from, int to, boolean shared) {
+			this.segment = segment;
+			this.from = from;
+			this.to = to;
+			this.shared = shared;
+		}
+	}
+
+	/**
+	 * The storage of this list.
+	 */
+	private final Store store;
+
+	/**
+	 * The absolute index of the first element of this list.
+	 */
+	private int offset;
+
+	/**
+	 * The amount of {@link #moveBy(int) moves} of this view.
+	 */
+	private int moves;
+
+	/**
+	 * The size of this list.
+	 */
+	private final int size;
+
+	/**
+	 * Creates a new list containing the given values.
+	 *
+	 * @param values
+	 * 		the values to copy
+	 */
+	public CopyOnWriteArgumentList(Collection<String> values) {
+		this(values.toArray(new String[values.size()]));
+	}
+
+	/**
+	 * Creates a new list backed by the given array.
+	 * <p>
+	 * The array is not copied and must not be modified afterwards.
+	 *
+	 * @param values
+	 * 		the argument array
+	 */
+	public CopyOnWriteArgumentList(String... values) {
+		this(new Store(new Segment(values, 0, null), 0, values.length, false), 0, values.length);
+	}
+
+	private CopyOnWriteArgumentList(int size, IArgumentSource source) {
+		this(new Store(new Segment(newUnresolvedArray(size), 0, source), 0, size, false), 0, size);
+	}
+
+	private CopyOnWriteArgumentList(Store store, int offset, int size) {
+		this.store = store;
+		this.offset = offset;
+		this.size = size;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public String get(int index) {
+		if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+
+		final Segment segment = this.store.segment;
+		final int pos = this.offset - segment.base + index;
+		final String value = segment.values[pos];
+		return (value == UNRESOLVED) ? this.resolve(segment, pos) : value;
+	}
+
+	/**
+	 * Fetches an unresolved value from the source of the given segment.
+	 * <p>
+	 * The segment may be shared with snapshots using other locks. Storing the value is
+	 * nevertheless safe, because each of them would store the same value.
+	 */
+	private String resolve(Segment segment, int pos) {
+		final String value = segment.source.get(segment.base + pos);
+		synchronized (this.store) {
+			// the value may have been changed in the meantime
+			final String current = segment.values[pos];
+			if (current != UNRESOLVED) return current;
+			segment.values[pos] = value;
+		}
+		return value;
+	}
+
+	@Override
+	public String set(int index, String value) {
+		if (index < 0 || index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+
+		synchronized (this.store) {
+			Segment segment = this.store.segment;
+			if (this.store.shared) {
+				// copy the range owned by the store before changing it
+				segment = new Segment(Arrays.copyOfRange(
+					segment.values,
+					this.store.from - segment.base,
+					this.store.to - segment.base
+				), this.store.from, segment.source);
+				this.store.segment = segment;
+				this.store.shared = false;
+			}
+
+			final int pos = this.offset - segment.base + index;
+			String oldValue = segment.values[pos];
+			if (oldValue == UNRESOLVED) oldValue = segment.source.get(segment.base + pos);
+			segment.values[pos] = value;
+			this.store.modCount++;
+			return oldValue;
+		}
+	}
+
+	/**
+	 * Returns the amount of value changes.
+	 * <p>
+	 * The counter is shared with all sub-lists of this list. It can be used
+	 * to detect whether values derived from this list are outdated.
+	 * {@link #moveBy(int) Moving} a view also changes its counter.
+	 *
+	 * @return
+	 * 		the modification counter
+	 */
+	public int getModCount() {
+		return this.store.modCount + this.moves;
+	}
+
+	/**
+	 * Moves this view by the given amount of elements.
+	 * <p>
+	 * The size of this view is not changed. Afterwards this view shows the elements
+	 * {@code distance} positions after (or before, if negative) the elements shown before.
+	 * <p>
+	 * A view must not be moved while it is used by another thread.
+	 *
+	 * @param distance
+	 * 		the amount of elements to move
+	 * @throws IndexOutOfBoundsException
+	 * 		if the new range is outside of the underlying list
+	 */
+	public void moveBy(int distance) {
+		if (distance == 0) return;
+
+		final int newOffset = this.offset + distance;
+		if (newOffset < this.store.from || newOffset + this.size > this.store.to) {
+			throw new IndexOutOfBoundsException("Distance: " + distance + ", Size: " + this.size);
+		}
+		this.offset = newOffset;
+		this.moves++;
+	}
+
+	/**
+	 * Returns a view of the given range of this list.
+	 * <p>
+	 * Changes of the returned list are reflected in this list and vice versa.
+	 */
+	@Override
+	public CopyOnWriteArgumentList subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > this.size || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + this.size);
+		}
+		return new CopyOnWriteArgumentList(this.store, this.offset + fromIndex, toIndex - fromIndex);
+	}
+
+	/**
+	 * Creates an independent copy of this list.
+	 * <p>
+	 * The copy shares the argument array with this list until a value
+	 * is changed in one of the two lists.
+	 *
+	 * @return
+	 * 		the copy of this list
+	 */
+	public CopyOnWriteArgumentList snapshot() {
+		final Store snapshotStore;
+		synchronized (this.store) {
+			this.store.shared = true;
+			snapshotStore = new Store(this.store.segment, this.offset, this.offset + this.size, true);
+		}
+		return new CopyOnWriteArgumentList(snapshotStore, this.offset, this.size);
+	}
+
+	@Override
+	public Object[] toArray() {
+		final Segment segment = this.store.segment;
+		final int from = this.offset - segment.base;
+		final Object[] values = Arrays.copyOfRange(segment.values, from, from + this.size, Object[].class);
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == UNRESOLVED) values[i] = this.resolve(segment, from + i);
+		}
+		return values;
+	}
+
+	/**
+	 * Converts the given list into a copy-on-write list.
+	 * <p>
+	 * If the given list already is a copy-on-write list, it is returned unchanged.
+	 * Otherwise the values are copied into a new list.
+	 *
+	 * @param values
+	 * 		the values
+	 * @return
+	 * 		the copy-on-write list or {@code null} if the given list was {@code null}
+	 */
+	public static CopyOnWriteArgumentList valueOf(List<String> values) {
+		if (values == null) return null;
+		else if (values instanceof CopyOnWriteArgumentList) return (CopyOnWriteArgumentList) values;
+		return new CopyOnWriteArgumentList(values);
+	}
+
+	/**
+	 * Creates a lazy list, fetching each value from the given source on first access.
+	 * <p>
+	 * Each value is fetched only once. Afterwards the list behaves like any other copy-on-write list.
+	 *
+	 * @param size
+	 * 		the amount of values
+	 * @param source
+	 * 		the source of the values
+	 * @return
+	 * 		the lazy list
+	 */
+	public static CopyOnWriteArgumentList valueOf(int size, IArgumentSource source) {
+		if (size < 0) throw new IllegalArgumentException("The size must not be negative");
+		if (source == null) throw new NullPointerException("The source must not be null");
+		return new CopyOnWriteArgumentList(size, source);
+	}
+
+	private static String[] newUnresolvedArray(int size) {
+		final String[] values = new String[size];
+		Arrays.fill(values, UNRESOLVED);
+		return values;
+	}
+
+	/**
+	 * Creates an independent copy of the given list.
+	 *
+	 * @param values
+	 * 		the values to copy
+	 * @return
+	 * 		a {@link #snapshot() snapshot} if the given list is a copy-on-write list or
+	 * 		a new copy-on-write list containing the given values.
+	 */
+	public static CopyOnWriteArgumentList snapshotOf(List<String> values) {
+		if (values == null) return null;
+		else if (values instanceof CopyOnWriteArgumentList) return ((CopyOnWriteArgumentList) values).snapshot();
+		return new CopyOnWriteArgumentList(values);
+	}
+}
@@ -1204,6 +1204,45 @@ public interface IBackend extends Closeable {
 	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
 	public IProgramInfoList queryRecordings(ERecordingsType eRecordingsType) throws IOException;
 
+	/**
+	 * Queries for recordings with the given recording-type, returning them one at a time.
+	 * <p>
+	 * This function sends the same request as {@link #queryRecordings(ERecordingsType)}, but the recordings 
+	 * are decoded while they are received from the backend. The first recording is therefore available 
+	 * before the whole response was received, and only the current recording is held in memory.
+	 * <p>
+	 * The command connection can not be used until the returned stream was read completely or closed.
+	 * 
+	 * <h4>Usage example:</h4>
+	 * {@mythCodeExample <pre>
+	 *    // determine the total size of all recordings without holding them in memory
+	 *    long totalSize = 0;
+	 *    IProgramInfoStream recordings = backend.queryRecordingsStream(null);
+	 *    try &#123;
+	 *       while(recordings.hasNext()) &#123;
+	 *          totalSize += recordings.next().getFileSize().longValue();
+	 *       &#125;
+	 *    &#125; finally &#123;
+	 *       recordings.close();
+	 *    &#125;
+	 * </pre>}
+	 * 
+	 * @param eRecordingsType 
+	 * 		the type of the requested recordings. Use {@code null} or {@link ERecordingsType#Play} to query all available recordings.
+	 * @return 
+	 * 		a stream of all found recordings for the given type
+	 * @throws IOException
+	 * 		on communication errors
+	 * 
+	 * @see IMythCommand#QUERY_RECORDINGS QUERY_RECORDINGS
+	 * @see IProgramInfoStream
+	 * 
+	 * @mythProtoVersionRange
+	 * @since {@mythProtoVersion 00}
+	 */
+	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
+	public IProgramInfoStream queryRecordingsStream(ERecordingsType eRecordingsType) throws IOException;
+
 	/**
 	 * Generates a preview image of the requested show.
 	 * 
@@ -2223,6 +2262,29 @@ public interface IBackend extends Closeable {
 	@MythProtoVersionAnnotation(from = PROTO_VERSION_00)
 	public IRecordingsPending queryAllPending() throws IOException;
 
+	/**
+	 * Queries for all pending recordings, returning them one at a time.
+	 * <p>
+	 * This function sends the same request as {@link #queryAllPending()}, but the recordings are
+	 * decoded while they are received from the backend. The command connection can not be used until
+	 * the returned stream was read completely or closed.
+	 * <p>
+	 * Use {@link #queryAllPending()} to determine the amount of conflicts.
+	 * 
+	 * @return
+	 * 		a stream of all pending recordings
+	 * @throws IOException
+	 * 		on communication errors
+	 * 
+	 * @see IMythCommand#QUERY_GETALLPENDING QUERY_GETALLPENDING
+	 * @see IProgramInfoStream
+	 * 
+	 * @mythProtoVersionRange
+	 * @since {@mythProtoVersion 00}
+	 */
+	@MythProtoVersionAnnotation(from = PROTO_VERSION_00)
+	public IProgramInfoStream queryAllPendingStream() throws IOException;
+
 	/**
 	 * Gets all scheduled recordings.
 	 * <p>
@@ -2287,6 +2349,27 @@ public interface IBackend extends Closeable {
 	@MythProtoVersionAnnotation(from = PROTO_VERSION_00)
 	public IRecordingsScheduled queryAllScheduled() throws IOException;
 
+	/**
+	 * Queries for all scheduled recordings, returning them one at a time.
+	 * <p>
+	 * This function sends the same request as {@link #queryAllScheduled()}, but the recordings are
+	 * decoded while they are received from the backend. The command connection can not be used until
+	 * the returned stream was read completely or closed.
+	 * 
+	 * @return
+	 * 		a stream of all scheduled recordings
+	 * @throws IOException
+	 * 		on communication errors
+	 * 
+	 * @see IMythCommand#QUERY_GETALLSCHEDULED QUERY_GETALLSCHEDULED
+	 * @see IProgramInfoStream
+	 * 
+	 * @mythProtoVersionRange
+	 * @since {@mythProtoVersion 00}
+	 */
+	@MythProtoVersionAnnotation(from = PROTO_VERSION_00)
+	public IProgramInfoStream queryAllScheduledStream() throws IOException;
+
 	/**
 	 * Gets all programs that will expiring soon.
 	 * <p>
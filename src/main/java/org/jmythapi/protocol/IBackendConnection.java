@@ -27,8 +27,11 @@ import org.jmythapi.IVersionable;
 import org.jmythapi.protocol.annotation.MythProtoVersionAnnotation;
 import org.jmythapi.protocol.events.IMythEventPacketListener;
 import org.jmythapi.protocol.request.IMythRequest;
+import org.jmythapi.protocol.request.RequestTemplate;
 import org.jmythapi.protocol.response.IMythResponse;
+import org.jmythapi.protocol.utils.PacketArgumentReader;
 import org.jmythapi.protocol.utils.PacketUtils;
+import org.jmythapi.protocol.utils.StringDeduplicator;
 
 /**
  * This interface represents a connection to a MythTV-backend, -recorder or -encoder.
@@ -179,6 +182,22 @@ public interface IBackendConnection extends IVersionable {
 	 */
 	public void setMsgDebugOut(PrintStream out);
 	
+	/**
+	 * Sets a cache used to deduplicate the arguments of received packets.
+	 * <p>
+	 * Responses like the list of recordings repeat the same values many times, e.g. host names or 
+	 * recording groups. If a deduplicator is set, equal values are decoded only once and share the 
+	 * same string instance, which reduces the memory used by long-lived responses.
+	 * 
+	 * {@mythCodeExample <pre>
+	 *    backendConnection.setStringDeduplicator(new StringDeduplicator());
+	 * </pre> }
+	 * 
+	 * @param deduplicator
+	 * 		the deduplicator to use or {@code null} to disable deduplication
+	 */
+	public void setStringDeduplicator(StringDeduplicator deduplicator);
+	
 	/**
 	 * Sets the initla protocol-version to use.
 	 * <p>
@@ -256,6 +275,23 @@ public interface IBackendConnection extends IVersionable {
 	 */
 	public abstract IMythPacket readPacket() throws IOException;
 	
+	/**
+	 * Reads the next packet argument by argument.
+	 * <p>
+	 * In contrast to {@link #readPacket()} the arguments are read from the socket one at a time,
+	 * while the caller processes them. The returned reader must be closed before the next packet is read.
+	 * <p>
+	 * If {@link #enableEventListening() event listening} is enabled, packets are always read completely
+	 * by a separate thread. In this case the returned reader iterates over the arguments of the received packet.
+	 * 
+	 * @return
+	 * 		a reader for the arguments of the next packet
+	 * @throws IOException
+	 * 		on communication errors
+	 * @see PacketArgumentReader
+	 */
+	public PacketArgumentReader readPacketArguments() throws IOException;
+	
 	/**
 	 * Checks if at least {@link PacketUtils#SIZE_STRING_LENGTH} bytes 
 	 * can be read from the underlying input stream without blocking.
@@ -294,6 +330,24 @@ public interface IBackendConnection extends IVersionable {
 	 */
 	public abstract void writeMessage(IMythRequest msg) throws IOException;
 
+	/**
+	 * Sends a pre-encoded request to the backend.
+	 * <p>
+	 * This function performs the same checks as {@link #writeMessage(IMythRequest)} but
+	 * avoids creating request and packet objects for requests that are sent very often.
+	 * 
+	 * @param template
+	 * 		the request template
+	 * @param values
+	 * 		the numeric values of the request
+	 * @throws IOException
+	 * 		on communication errors
+	 * @throws UnsupportedCommandException 
+	 * 		if the command of the template is not supported by the given protocol version
+	 * @see RequestTemplate
+	 */
+	public abstract void writeTemplate(RequestTemplate template, long... values) throws IOException;
+
 	/**
 	 * Reads bytes from the socket.
 	 * 
@@ -309,6 +363,28 @@ public interface IBackendConnection extends IVersionable {
 	 * 		on communication errors
 	 */
 	public abstract int readData(byte[] b, int offset, int len) throws IOException;
+	
+	/**
+	 * Reads data from the connection, waiting at most the given time for data to arrive.
+	 * <p>
+	 * In contrast to polling {@link #canReadData()}, the calling thread is blocked while waiting
+	 * and does not consume any CPU time.
+	 * 
+	 * @param b
+	 * 		the byte array to fill with data
+	 * @param offset
+	 * 		to offset used to start writing into the array
+	 * @param len
+	 * 		the amount of bytes to read
+	 * @param timeout
+	 * 		the maximum time to wait for data, in milliseconds
+	 * @return
+	 * 		the amount of read bytes, {@code 0} if no data has arrived within the given time
+	 * 		or {@code -1} if the end of the stream was reached
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public int readData(byte[] b, int offset, int len, int timeout) throws IOException;
 
 	/**
 	 * Checks if data is available to read without blocking.
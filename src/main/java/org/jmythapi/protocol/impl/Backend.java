@@ -86,6 +86,7 @@ import org.jmythapi.protocol.response.IProgramRecordingStatus.Status;
 import org.jmythapi.protocol.response.impl.*;
 import org.jmythapi.protocol.utils.EnumUtils;
 import org.jmythapi.protocol.utils.EventUtils;
+import org.jmythapi.protocol.utils.PacketArgumentReader;
 import org.jmythapi.protocol.utils.RequestUtils;
 import org.jmythapi.protocol.utils.ResponseUtils;
 import org.jmythapi.utils.EncodingUtils;
@@ -967,6 +968,61 @@ public class Backend implements IVersionable, Closeable, IBackend, IMythEventPac
 		return recordings;
 	}
 	
+	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
+	public IProgramInfoStream queryRecordingsStream(ERecordingsType eRecordingsType) throws IOException {
+		// set default value
+		if (eRecordingsType == null) {
+			if(this.protoVersion.compareTo(PROTO_VERSION_65)<0) {
+				eRecordingsType = ERecordingsType.Play;
+			} else {
+				eRecordingsType = ERecordingsType.Ascending;
+			}
+		}
+		
+		/*
+		 * Prior to protocol version 19 the recording-status was not set properly.
+		 * See queryRecordings for details. The connection is busy while streaming,
+		 * therefore the currently running recordings are determined in advance.
+		 */
+		Map<String,IProgramInfo> inProgress = null;
+		if(this.protoVersion.compareTo(PROTO_VERSION_19)<=0) {
+			final IRecordingStatus recordingStatus = this.queryIsRecording();
+			if(recordingStatus.isRecording()) {
+				final IRecordingsPending pendingRecordings = this.queryAllPending();
+				inProgress = pendingRecordings.getProgramInfoList(ProgramInfoFilters.status(Status.RECORDING)).asMap(MapKey.UNIQUE_RECORDING_ID);
+			} else {
+				inProgress = Collections.emptyMap();
+			}
+		}
+		final Map<String,IProgramInfo> inProgressRecordings = inProgress;
+		
+		// write request
+		this.cmdConnection.writeMessage(new AMythRequest(
+			new AMythCommand(
+				this.protoVersion,
+				IMythCommand.QUERY_RECORDINGS,
+				eRecordingsType.name()
+			)
+		));
+		
+		// read response
+		final PacketArgumentReader reader = this.cmdConnection.readPacketArguments();
+		return new ProgramInfoStream(this.protoVersion, reader, IProgramInfoList.Props.SIZE.ordinal()) {
+			@Override
+			protected void processProgram(ProgramInfo recording) {
+				if(inProgressRecordings == null) return;
+				
+				final Status newStatus = inProgressRecordings.containsKey(recording.getUniqueRecordingId())
+					? Status.RECORDING 
+					: Status.RECORDED;
+				recording.setPropertyValueObject(
+					IProgramInfo.Props.REC_STATUS,
+					ProgramRecordingStatus.valueOf(recording.getVersionNr(),newStatus)
+				);
+			}
+		};
+	}
+	
 	@MythProtoVersionAnnotation(from=PROTO_VERSION_00,to=PROTO_VERSION_61,toFallback=PROTO_VERSION_LATEST)
 	public boolean queryGenPixmap(IProgramInfo program) throws IOException {
 		return this.queryGenPixmap(program,null,null,null,null,null);
@@ -1779,6 +1835,21 @@ public class Backend implements IVersionable, Closeable, IBackend, IMythEventPac
 		return pendingRecords;
 	}
 	
+	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
+	public IProgramInfoStream queryAllPendingStream() throws IOException {
+		// write request
+		this.cmdConnection.writeMessage(new AMythRequest(
+			new AMythCommand(
+				this.protoVersion,
+				IMythCommand.QUERY_GETALLPENDING
+			)
+		));
+		
+		// read response
+		final PacketArgumentReader reader = this.cmdConnection.readPacketArguments();
+		return new ProgramInfoStream(this.protoVersion, reader, IRecordingsPending.Props.SIZE.ordinal());
+	}
+	
 	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
 	public RecordingsScheduled queryAllScheduled() throws IOException {
 		
@@ -1797,6 +1868,21 @@ public class Backend implements IVersionable, Closeable, IBackend, IMythEventPac
 		return recordsScheduled;
 	}
 	
+	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
+	public IProgramInfoStream queryAllScheduledStream() throws IOException {
+		// write request
+		this.cmdConnection.writeMessage(new AMythRequest(
+			new AMythCommand(
+				this.protoVersion,
+				IMythCommand.QUERY_GETALLSCHEDULED
+			)
+		));
+		
+		// read response
+		final PacketArgumentReader reader = this.cmdConnection.readPacketArguments();
+		return new ProgramInfoStream(this.protoVersion, reader, IRecordingsScheduled.Props.SIZE.ordinal());
+	}
+	
 	@MythProtoVersionAnnotation(from=PROTO_VERSION_23,fromFallback=PROTO_VERSION_00)
 	public RecordingsExpiring queryExpiring() throws IOException {
 		// fallback for PROTO_VERSION < 23
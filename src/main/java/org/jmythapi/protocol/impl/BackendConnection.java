@@ -57,8 +57,11 @@ import org.jmythapi.protocol.request.AMythCommand;
 import org.jmythapi.protocol.request.AMythRequest;
 import org.jmythapi.protocol.request.IMythCommand;
 import org.jmythapi.protocol.request.IMythRequest;
+import org.jmythapi.protocol.request.RequestTemplate;
 import org.jmythapi.protocol.utils.CommandUtils;
+import org.jmythapi.protocol.utils.PacketArgumentReader;
 import org.jmythapi.protocol.utils.PacketUtils;
+import org.jmythapi.protocol.utils.StringDeduplicator;
 
 public class BackendConnection implements IVersionable, Closeable, IBackendConnection {
 	/**
@@ -86,6 +89,11 @@ public class BackendConnection implements IVersionable, Closeable, IBackendConne
 	 */
 	private PrintStream msgDebugStream;
 	
+	/**
+	 * An optional cache to deduplicate the arguments of received packets.
+	 */
+	private volatile StringDeduplicator stringDeduplicator;
+	
 	/**
 	 * The currently used protocol-version
 	 */
@@ -178,6 +186,10 @@ public class BackendConnection implements IVersionable, Closeable, IBackendConne
 		this.msgDebugStream = out;
 	}
 	
+	public void setStringDeduplicator(StringDeduplicator deduplicator) {
+		this.stringDeduplicator = deduplicator;
+	}
+	
 	public String getHostname() {
 		return this.mythHostName;
 	}
@@ -381,6 +393,22 @@ public class BackendConnection implements IVersionable, Closeable, IBackendConne
 		return packet;
 	}
 	
+	public PacketArgumentReader readPacketArguments() throws IOException {
+		if(this.packetReaderQueue != null) {
+			// the packet was already read by the reader thread
+			return new PacketArgumentReader(this.readPacketFromQueue());
+		}
+		
+		final PacketArgumentReader reader = new PacketArgumentReader(this.socketInputStream, this.stringDeduplicator);
+		if(msgLogger.isLoggable(Level.FINEST)) {
+			msgLogger.finest("< [streamed packet]");
+		}
+		if(this.msgDebugStream != null) {
+			this.msgDebugStream.println("< [streamed packet]");
+		}
+		return reader;
+	}
+	
 	protected IMythPacket readPacketFromQueue() throws IOException {
 		if(this.packetReaderQueue == null) throw new IllegalStateException("No packet queue available");
 		
@@ -394,7 +422,7 @@ public class BackendConnection implements IVersionable, Closeable, IBackendConne
 	}
 	
 	protected IMythPacket readPacketFromSocket() throws IOException {
-		final IMythPacket resp = PacketUtils.readFrom(this.protoVersion, this.socketInputStream);
+		final IMythPacket resp = PacketUtils.readFrom(this.protoVersion, this.socketInputStream, this.stringDeduplicator);
 		if(msgLogger.isLoggable(Level.FINEST)) {
 			msgLogger.finest("< " + resp.toString());
 		}
@@ -495,10 +523,76 @@ public class BackendConnection implements IVersionable, Closeable, IBackendConne
 		if (commandName.equals(IMythCommand.ANN)) this.ann = true;
 	}
 	
+	public void writeTemplate(RequestTemplate template, long... values) throws IOException {
+		// the template must not be null
+		if (template == null) throw new NullPointerException("Template was null");
+		
+		// getting the command name
+		final String commandName = template.getCommandName();
+		
+		// the command of the request must have a proper type
+		if (!ann && !NON_PLAYBACKSOCK_COMMANDS.contains(commandName)) {
+			throw new ProtocolException("Unexpected command. ANN command not sent so far.");
+		} else if (commandName.equals(IMythCommand.ANN)) {
+			throw new ProtocolException("ANN commands can not be sent via templates.");
+		}
+		
+		// checking the version
+		if (template.getVersionNr() != this.protoVersion) {
+			throw new ProtocolException(String.format(
+				"The request has a wrong version '%s'. The backend is speaking '%s'.",
+				template.getVersionNr(), this.protoVersion
+			));
+		}
+		
+		/*
+		 * Check if the command is supported by the current backend
+		 */	
+		final ProtocolVersionRange versionRange = CommandUtils.getCommandVersionRange(commandName);
+		if (!versionRange.isInRange(this.protoVersion)) {
+			throw new UnsupportedCommandException(String.format(
+				"The command '%s' is only supported in the protocol-version range %s.",
+				commandName,
+				versionRange.toString()
+			));
+		}
+		
+		// writing out the data to the stream
+		template.writeTo(this.socketOutputStream, values);
+		
+		// log packet data
+		if(msgLogger.isLoggable(Level.FINEST)) {
+			msgLogger.finest("> " + template.toString(values));
+		}
+		if(this.msgDebugStream != null) {
+			this.msgDebugStream.println("> " + template.toString(values));
+		}
+	}
+	
 	public int readData(byte[] b, int offset, int len) throws IOException {
 		return this.socketInputStream.read(b,offset,len);
 	}
 	
+	public int readData(byte[] b, int offset, int len, int timeout) throws IOException {
+		if(len == 0) return 0;
+		
+		// no need to change the socket timeout if the data is already buffered
+		if(this.socketInputStream.available() > 0) {
+			return this.socketInputStream.read(b,offset,len);
+		}
+		
+		final int oldTimeout = this.socket.getSoTimeout();
+		try {
+			// a timeout of 0 would block forever
+			this.socket.setSoTimeout(Math.max(1,timeout));
+			return this.socketInputStream.read(b,offset,len);
+		} catch(SocketTimeoutException e) {
+			return 0;
+		} finally {
+			this.socket.setSoTimeout(oldTimeout);
+		}
+	}
+	
 	public boolean canReadData() throws IOException {		
 		return this.socketInputStream.available() > 0;
 	}
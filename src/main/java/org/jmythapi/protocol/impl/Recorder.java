@@ -67,6 +67,7 @@ import org.jmythapi.protocol.request.EChannelBrowseDirection;
 import org.jmythapi.protocol.request.EChannelChangeDirection;
 import org.jmythapi.protocol.request.EPictureAdjustmentType;
 import org.jmythapi.protocol.request.IMythCommand;
+import org.jmythapi.protocol.request.RequestTemplate;
 import org.jmythapi.protocol.response.IFreeInputList;
 import org.jmythapi.protocol.response.IInputInfoFree;
 import org.jmythapi.protocol.response.IProgramInfo;
@@ -123,6 +124,16 @@ public class Recorder implements IVersionable, IRecorder {
 	
 	private boolean shouldClose = false;
 	
+	/**
+	 * The pre-encoded {@link IMythCommand#QUERY_RECORDER_IS_RECORDING} request.
+	 */
+	private RequestTemplate isRecordingTemplate;
+	
+	/**
+	 * The pre-encoded {@link IMythCommand#QUERY_RECORDER_GET_FRAMES_WRITTEN} request.
+	 */
+	private RequestTemplate framesWrittenTemplate;
+	
 	public Recorder(IBackendConnection mythtvConnection, int recorderId) {
 		this.shouldClose = false;
 		this.recorderId = recorderId;
@@ -373,15 +384,20 @@ public class Recorder implements IVersionable, IRecorder {
 	}
 	
 	public boolean isRecording() throws IOException {
+		// this request is polled frequently, therefore it is encoded only once
+		if (this.isRecordingTemplate == null) {
+			this.isRecordingTemplate = new RequestTemplate(
+				new AMythCommand(
+					this.protoVersion,
+					IMythCommand.QUERY_RECORDER,
+					Integer.toString(this.recorderId)
+				),
+				IMythCommand.QUERY_RECORDER_IS_RECORDING
+			);
+		}
+		
 		// write request
-		this.commandConnection.writeMessage(new AMythRequest(
-			new AMythCommand(
-				this.protoVersion,
-				IMythCommand.QUERY_RECORDER,
-				Integer.toString(this.recorderId)
-			),
-			IMythCommand.QUERY_RECORDER_IS_RECORDING
-		));
+		this.commandConnection.writeTemplate(this.isRecordingTemplate);
 		
 		// read response
 		final IMythPacket resp = this.commandConnection.readPacket();
@@ -895,15 +911,20 @@ public class Recorder implements IVersionable, IRecorder {
 	
 	@MythProtoVersionAnnotation(from=PROTO_VERSION_00)
 	public long getFramesWritten() throws IOException {
+		// this request is polled frequently, therefore it is encoded only once
+		if (this.framesWrittenTemplate == null) {
+			this.framesWrittenTemplate = new RequestTemplate(
+				new AMythCommand(
+					this.protoVersion,
+					IMythCommand.QUERY_RECORDER,
+					Integer.toString(this.recorderId)
+				),
+				IMythCommand.QUERY_RECORDER_GET_FRAMES_WRITTEN
+			);
+		}
+		
 		// write request
-		this.commandConnection.writeMessage(new AMythRequest(
-			new AMythCommand(
-				this.protoVersion,
-				IMythCommand.QUERY_RECORDER,
-				Integer.toString(this.recorderId)
-			),
-			IMythCommand.QUERY_RECORDER_GET_FRAMES_WRITTEN
-		));
+		this.commandConnection.writeTemplate(this.framesWrittenTemplate);
 		
 		// read response
 		final IMythPacket resp = this.commandConnection.readPacket();
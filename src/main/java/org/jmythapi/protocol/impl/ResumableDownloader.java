@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.impl;
+
+import static org.jmythapi.protocol.ProtocolVersion.PROTO_VERSION_51;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import org.jmythapi.protocol.IBackend;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.IFileTransfer;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.ITransferProgressListener;
+import org.jmythapi.protocol.response.ITransferable.Seek;
+import org.jmythapi.protocol.response.impl.AdaptiveBlockSize;
+import org.jmythapi.utils.OpenSubtitlesHasher;
+
+/**
+ * Downloads a file, continuing an interrupted download of the same file.
+ * <p>
+ * While downloading, the amount of bytes already written to the local file is stored in a progress file
+ * next to the target file, named {@code <target>.progress}. The offset is only stored after the local file
+ * has been flushed to the disk, therefore all bytes before the stored offset are known to be complete.
+ * <p>
+ * If a download is started again for the same remote file and target, the local file is truncated to the
+ * stored offset and the transfer {@link IFileTransfer#seek(long, long, Seek) seeks} to this offset.
+ * If the progress file belongs to a different remote file or the remote file became smaller, the download
+ * is started from the beginning.
+ * <p>
+ * After the download has finished, the hash of the local file is calculated using the {@link OpenSubtitlesHasher}
+ * and compared with the hash {@link IBackend#queryFileHash(String, String) calculated by the backend}
+ * (since {@mythProtoVersion 51}). If the hashes do not match, the local file and the progress file are deleted.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    IProgramInfo recording = backend.queryRecordings().get(0);
+ *    Path target = Paths.get("/tmp/recording.mpg");
+ *    
+ *    ResumableDownloader downloader = new ResumableDownloader(backend);
+ *    while (true) &#123;
+ *       try &#123;
+ *          downloader.download(recording, target);
+ *          break;
+ *       &#125; catch (SocketException e) &#123;
+ *          // the next call continues the download
+ *          Thread.sleep(5000);
+ *       &#125;
+ *    &#125;
+ * </pre>}
+ * 
+ * @see SegmentedDownloader
+ */
+public class ResumableDownloader {
+	/**
+	 * The default amount of bytes downloaded between two updates of the progress file.
+	 */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 16 * 1024 * 1024;
+	
+	/**
+	 * The suffix of the progress file.
+	 */
+	public static final String PROGRESS_FILE_SUFFIX = ".progress";
+	
+	private static final String PROP_FILE_NAME = "fileName";
+	private static final String PROP_STORAGE_GROUP = "storageGroup";
+	private static final String PROP_OFFSET = "offset";
+	
+	private static final Logger logger = Logger.getLogger(ResumableDownloader.class.getName());
+	
+	private final String hostName;
+	private final int hostPort;
+	private final ProtocolVersion protoVersion;
+	
+	private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+	private ITransferProgressListener listener;
+	
+	/**
+	 * Creates a downloader for files of the given backend.
+	 * 
+	 * @param backend
+	 * 		the backend. Only the host, port and protocol version are used, because the file transfer requires its own connection.
+	 */
+	public ResumableDownloader(IBackend backend) {
+		this(backend.getHostName(), backend.getHostPort(), backend.getVersionNr());
+	}
+	
+	/**
+	 * Creates a downloader for files of the given backend.
+	 * 
+	 * @param hostName
+	 * 		the host name of the backend
+	 * @param hostPort
+	 * 		the command port of the backend
+	 * @param protoVersion
+	 * 		the protocol version to use or {@code null} to determine it
+	 */
+	public ResumableDownloader(String hostName, int hostPort, ProtocolVersion protoVersion) {
+		if (hostName == null) throw new NullPointerException("No host name specified");
+		this.hostName = hostName;
+		this.hostPort = hostPort;
+		this.protoVersion = protoVersion;
+	}
+	
+	/**
+	 * Gets the amount of bytes downloaded between two updates of the progress file.
+	 * 
+	 * @return
+	 * 		the checkpoint interval in bytes
+	 */
+	public long getCheckpointInterval() {
+		return this.checkpointInterval;
+	}
+	
+	/**
+	 * Sets the amount of bytes downloaded between two updates of the progress file.
+	 * <p>
+	 * Each update flushes the local file to the disk. Smaller values reduce the amount of data downloaded 
+	 * again after an interruption, but slow down the download.
+	 * 
+	 * @param checkpointInterval
+	 * 		the checkpoint interval in bytes
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		if (checkpointInterval <= 0) throw new IllegalArgumentException("The checkpoint interval must be positive");
+		this.checkpointInterval = checkpointInterval;
+	}
+	
+	/**
+	 * Sets the listener to inform about the download progress.
+	 * <p>
+	 * The transferred byte count includes the bytes downloaded before the download was resumed.
+	 * 
+	 * @param listener
+	 * 		the listener or {@code null}
+	 */
+	public void setProgressListener(ITransferProgressListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Gets the progress file used for the given target file.
+	 * 
+	 * @param target
+	 * 		the local file
+	 * @return
+	 * 		the progress file
+	 */
+	public static Path getProgressFile(Path target) {
+		return target.resolveSibling(target.getFileName() + PROGRESS_FILE_SUFFIX);
+	}
+	
+	/**
+	 * Downloads the file of the given recording or continues a previous download.
+	 * 
+	 * @param recording
+	 * 		the recording to download
+	 * @param target
+	 * 		the local file
+	 * @return
+	 * 		the size of the downloaded file
+	 * @throws IOException
+	 * 		on communication errors, if the file does not exist or if the hash of the downloaded file is wrong
+	 */
+	public long download(IProgramInfo recording, Path target) throws IOException {
+		return this.download(recording.getPathName(), recording.getStorageGroup(), target);
+	}
+	
+	/**
+	 * Downloads the given file or continues a previous download.
+	 * 
+	 * @param fileName
+	 * 		the name of the remote file
+	 * @param storageGroup
+	 * 		the storage group of the file
+	 * @param target
+	 * 		the local file
+	 * @return
+	 * 		the size of the downloaded file
+	 * @throws IOException
+	 * 		on communication errors, if the file does not exist or if the hash of the downloaded file is wrong
+	 */
+	public long download(String fileName, String storageGroup, Path target) throws IOException {
+		final Path progressFile = getProgressFile(target);
+		
+		final Backend backend = new Backend(this.hostName, this.hostPort);
+		if (this.protoVersion != null) backend.setInitialVersionNr(this.protoVersion);
+		
+		IFileTransfer transfer = null;
+		FileChannel targetChannel = null;
+		try {
+			backend.connect();
+			backend.annotateMonitor();
+			
+			transfer = backend.annotateFileTransfer(fileName, null, null, null, storageGroup);
+			if (transfer == null || !transfer.isOpen()) {
+				throw new FileNotFoundException(String.format("Remote file '%s' can not be opened", fileName));
+			}
+			final long fileSize = transfer.getFileSize();
+			
+			// determine the offset to continue at
+			long offset = this.readOffset(progressFile, fileName, storageGroup);
+			if (offset > 0 && (offset > fileSize || !Files.exists(target) || Files.size(target) < offset)) {
+				logger.info(String.format(
+					"Unable to continue the download of '%s' at offset %d. Starting from the beginning.",
+					fileName, Long.valueOf(offset)
+				));
+				offset = 0;
+			}
+			
+			targetChannel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			targetChannel.truncate(offset);
+			
+			if (offset > 0) {
+				final long position = transfer.seek(0, offset, Seek.ABSOLUTE);
+				if (position != offset) {
+					throw new IOException(String.format(
+						"Unable to seek to position %d, the position is %d",
+						Long.valueOf(offset),
+						Long.valueOf(position)
+					));
+				}
+				logger.info(String.format(
+					"Continuing the download of '%s' at offset %d of %d.",
+					fileName, Long.valueOf(offset), Long.valueOf(fileSize)
+				));
+			}
+			this.writeOffset(progressFile, fileName, storageGroup, offset);
+			
+			// transfer the remaining data
+			long position = offset;
+			long checkpoint = offset + this.checkpointInterval;
+			final byte[] buffer = new byte[AdaptiveBlockSize.MAX_BLOCK_SIZE];
+			while (position < fileSize) {
+				final int read = transfer.readBlockPipelined(buffer, Math.min(buffer.length, transfer.getBlockSize()), fileSize - position);
+				if (read == -1) break;
+				else if (read == 0) {
+					throw new IOException(String.format(
+						"No data returned at position %d",
+						Long.valueOf(position)
+					));
+				}
+				
+				final ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+				while (data.hasRemaining()) {
+					position += targetChannel.write(data, position);
+				}
+				
+				if (position >= checkpoint) {
+					targetChannel.force(false);
+					this.writeOffset(progressFile, fileName, storageGroup, position);
+					checkpoint = position + this.checkpointInterval;
+				}
+				
+				if (this.listener != null) {
+					this.listener.transferProgress(position, fileSize);
+				}
+			}
+			targetChannel.force(false);
+			this.writeOffset(progressFile, fileName, storageGroup, position);
+			targetChannel.close();
+			targetChannel = null;
+			
+			if (position != fileSize) {
+				throw new IOException(String.format(
+					"The download of '%s' ended at position %d of %d",
+					fileName, Long.valueOf(position), Long.valueOf(fileSize)
+				));
+			}
+			
+			// verify the downloaded file
+			transfer.close();
+			transfer = null;
+			this.verify(backend, fileName, storageGroup, target, progressFile);
+			
+			Files.deleteIfExists(progressFile);
+			return position;
+		} finally {
+			if (targetChannel != null) targetChannel.close();
+			if (transfer != null) {
+				try {
+					transfer.close();
+				} catch (IOException e) {
+					logger.fine("Unable to close the file transfer.");
+				}
+			}
+			backend.disconnect();
+		}
+	}
+	
+	/**
+	 * Compares the hash of the local file with the hash calculated by the backend.
+	 */
+	private void verify(Backend backend, String fileName, String storageGroup, Path target, Path progressFile) throws IOException {
+		if (backend.getVersionNr().compareTo(PROTO_VERSION_51) < 0) {
+			logger.info(String.format(
+				"Unable to verify the download of '%s', file hashes are not supported by protocol version %s.",
+				fileName, backend.getVersionNr()
+			));
+			return;
+		}
+		
+		final String remoteHash = backend.queryFileHash(fileName, storageGroup);
+		if (remoteHash == null || remoteHash.length() == 0 || remoteHash.equals("NULL")) {
+			logger.warning(String.format(
+				"Unable to verify the download of '%s', the backend returned no file hash.",
+				fileName
+			));
+			return;
+		}
+		
+		final String localHash = OpenSubtitlesHasher.computeHash(target.toFile());
+		if (!localHash.equalsIgnoreCase(remoteHash)) {
+			Files.deleteIfExists(target);
+			Files.deleteIfExists(progressFile);
+			throw new IOException(String.format(
+				"The hash '%s' of the downloaded file does not match the hash '%s' of the remote file '%s'.",
+				localHash, remoteHash, fileName
+			));
+		}
+	}
+	
+	/**
+	 * Reads the offset stored in the progress file or returns {@code 0} if it belongs to a different remote file.
+	 */
+	private long readOffset(Path progressFile, String fileName, String storageGroup) {
+		if (!Files.exists(progressFile)) return 0;
+		
+		final Properties progress = new Properties();
+		InputStream input = null;
+		try {
+			input = Files.newInputStream(progressFile);
+			progress.load(input);
+			
+			if (!fileName.equals(progress.getProperty(PROP_FILE_NAME))) return 0;
+			if (!String.valueOf(storageGroup).equals(progress.getProperty(PROP_STORAGE_GROUP))) return 0;
+			return Long.parseLong(progress.getProperty(PROP_OFFSET, "0"));
+		} catch (Exception e) {
+			logger.warning(String.format(
+				"Unable to read the progress file '%s': %s",
+				progressFile, e.getMessage()
+			));
+			return 0;
+		} finally {
+			if (input != null) try { input.close(); } catch (IOException e) {/* ignore this */}
+		}
+	}
+	
+	/**
+	 * Replaces the progress file with the given offset.
+	 */
+	private void writeOffset(Path progressFile, String fileName, String storageGroup, long offset) throws IOException {
+		final Properties progress = new Properties();
+		progress.setProperty(PROP_FILE_NAME, fileName);
+		progress.setProperty(PROP_STORAGE_GROUP, String.valueOf(storageGroup));
+		progress.setProperty(PROP_OFFSET, Long.toString(offset));
+		
+		final Path tempFile = progressFile.resolveSibling(progressFile.getFileName() + ".tmp");
+		final OutputStream output = Files.newOutputStream(tempFile);
+		try {
+			progress.store(output, null);
+		} finally {
+			output.close();
+		}
+		Files.move(tempFile, progressFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.impl;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jmythapi.protocol.IBackend;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.IFileTransfer;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.ITransferProgressListener;
+import org.jmythapi.protocol.response.ITransferable.Seek;
+import org.jmythapi.protocol.response.impl.AdaptiveBlockSize;
+
+/**
+ * Downloads a single file using multiple parallel file transfers.
+ * <p>
+ * A {@link IFileTransfer file transfer} reads the file sequentially, therefore its throughput is limited by the
+ * latency of the link. This class splits the file into multiple byte ranges. Each range is read by a separate
+ * file transfer, which {@link IFileTransfer#seek(long, long, Seek) seeks} to the start of its range. The received
+ * blocks are written into a preallocated local file using positional writes.
+ * <p>
+ * The blocks of a file transfer are requested using the command connection of the backend. Therefore each
+ * segment uses its own backend connection.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    IProgramInfo recording = backend.queryRecordings().get(0);
+ *    
+ *    SegmentedDownloader downloader = new SegmentedDownloader(backend);
+ *    downloader.setSegmentCount(8);
+ *    downloader.download(recording, Paths.get("/tmp/recording.mpg"));
+ * </pre>}
+ */
+public class SegmentedDownloader {
+	/**
+	 * The default amount of parallel file transfers.
+	 */
+	public static final int DEFAULT_SEGMENT_COUNT = 4;
+	
+	/**
+	 * The minimum size of a segment. Smaller files are downloaded using fewer segments.
+	 */
+	public static final long MIN_SEGMENT_SIZE = 8 * 1024 * 1024;
+	
+	private static final Logger logger = Logger.getLogger(SegmentedDownloader.class.getName());
+	
+	private final String hostName;
+	private final int hostPort;
+	private final ProtocolVersion protoVersion;
+	
+	private int segmentCount = DEFAULT_SEGMENT_COUNT;
+	private ITransferProgressListener listener;
+	
+	/**
+	 * A connection used to transfer a single segment.
+	 */
+	private static final class Segment {
+		final Backend backend;
+		final IFileTransfer transfer;
+		
+		Segment(Backend backend, IFileTransfer transfer) {
+			this.backend = backend;
+			this.transfer = transfer;
+		}
+		
+		void close() {
+			try {
+				this.transfer.close();
+			} catch (IOException e) {
+				logger.log(Level.FINE, "Unable to close the file transfer.", e);
+			}
+			this.backend.disconnect();
+		}
+	}
+	
+	/**
+	 * Creates a downloader for files of the given backend.
+	 * 
+	 * @param backend
+	 * 		the backend. Only the host, port and protocol version are used, because each segment requires its own connection.
+	 */
+	public SegmentedDownloader(IBackend backend) {
+		this(backend.getHostName(), backend.getHostPort(), backend.getVersionNr());
+	}
+	
+	/**
+	 * Creates a downloader for files of the given backend.
+	 * 
+	 * @param hostName
+	 * 		the host name of the backend
+	 * @param hostPort
+	 * 		the command port of the backend
+	 * @param protoVersion
+	 * 		the protocol version to use or {@code null} to determine it
+	 */
+	public SegmentedDownloader(String hostName, int hostPort, ProtocolVersion protoVersion) {
+		if (hostName == null) throw new NullPointerException("No host name specified");
+		this.hostName = hostName;
+		this.hostPort = hostPort;
+		this.protoVersion = protoVersion;
+	}
+	
+	/**
+	 * Gets the maximum amount of parallel file transfers.
+	 * 
+	 * @return
+	 * 		the amount of segments
+	 */
+	public int getSegmentCount() {
+		return this.segmentCount;
+	}
+	
+	/**
+	 * Sets the maximum amount of parallel file transfers.
+	 * 
+	 * @param segmentCount
+	 * 		the amount of segments, at least {@code 1}
+	 */
+	public void setSegmentCount(int segmentCount) {
+		if (segmentCount < 1) throw new IllegalArgumentException("At least one segment is required");
+		this.segmentCount = segmentCount;
+	}
+	
+	/**
+	 * Sets the listener to inform about the download progress.
+	 * <p>
+	 * The listener is called concurrently by the threads transferring the segments.
+	 * 
+	 * @param listener
+	 * 		the listener or {@code null}
+	 */
+	public void setProgressListener(ITransferProgressListener listener) {
+		this.listener = listener;
+	}
+	
+	/**
+	 * Downloads the file of the given recording.
+	 * 
+	 * @param recording
+	 * 		the recording to download
+	 * @param target
+	 * 		the local file. An existing file is overwritten.
+	 * @return
+	 * 		the amount of downloaded bytes
+	 * @throws IOException
+	 * 		on communication errors or if the file does not exist
+	 */
+	public long download(IProgramInfo recording, Path target) throws IOException {
+		return this.download(recording.getPathName(), recording.getStorageGroup(), target);
+	}
+	
+	/**
+	 * Downloads the given file.
+	 * 
+	 * @param fileName
+	 * 		the name of the remote file
+	 * @param storageGroup
+	 * 		the storage group of the file
+	 * @param target
+	 * 		the local file. An existing file is overwritten.
+	 * @return
+	 * 		the amount of downloaded bytes
+	 * @throws IOException
+	 * 		on communication errors or if the file does not exist
+	 */
+	public long download(String fileName, String storageGroup, Path target) throws IOException {
+		final List<Segment> segments = new ArrayList<Segment>();
+		FileChannel targetChannel = null;
+		ExecutorService executor = null;
+		try {
+			// the first connection determines the file size
+			segments.add(this.openSegment(fileName, storageGroup));
+			final long fileSize = segments.get(0).transfer.getFileSize();
+			
+			final int count = (int) Math.max(1, Math.min(this.segmentCount, fileSize / MIN_SEGMENT_SIZE));
+			while (segments.size() < count) {
+				segments.add(this.openSegment(fileName, storageGroup));
+			}
+			
+			// preallocate the local file
+			targetChannel = FileChannel.open(
+				target, 
+				StandardOpenOption.CREATE, 
+				StandardOpenOption.TRUNCATE_EXISTING, 
+				StandardOpenOption.WRITE
+			);
+			if (fileSize > 0) {
+				targetChannel.write(ByteBuffer.wrap(new byte[1]), fileSize - 1);
+			}
+			
+			// transfer all segments in parallel
+			final AtomicLong transferred = new AtomicLong();
+			final long segmentSize = (fileSize + count - 1) / count;
+			executor = Executors.newFixedThreadPool(count);
+			final List<Future<Long>> results = new ArrayList<Future<Long>>(count);
+			for (int i = 0; i < count; i++) {
+				final long start = Math.min(fileSize, i * segmentSize);
+				final long end = Math.min(fileSize, start + segmentSize);
+				results.add(executor.submit(this.createSegmentTask(
+					segments.get(i).transfer, targetChannel, start, end, fileSize, transferred
+				)));
+			}
+			
+			// wait for all segments
+			IOException error = null;
+			for (Future<Long> result : results) {
+				try {
+					result.get();
+				} catch (ExecutionException e) {
+					if (error == null) {
+						error = (e.getCause() instanceof IOException)
+							? (IOException) e.getCause()
+							: new IOException("Unable to transfer segment", e.getCause());
+						
+						// abort all other segments
+						for (Segment segment : segments) segment.backend.disconnect();
+					}
+				} catch (InterruptedException e) {
+					for (Segment segment : segments) segment.backend.disconnect();
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while waiting for the download");
+				}
+			}
+			if (error != null) throw error;
+			
+			return transferred.get();
+		} finally {
+			if (executor != null) executor.shutdownNow();
+			for (Segment segment : segments) segment.close();
+			if (targetChannel != null) targetChannel.close();
+		}
+	}
+	
+	private Segment openSegment(String fileName, String storageGroup) throws IOException {
+		final Backend backend = new Backend(this.hostName, this.hostPort);
+		if (this.protoVersion != null) backend.setInitialVersionNr(this.protoVersion);
+		
+		try {
+			backend.connect();
+			backend.annotateMonitor();
+			
+			final IFileTransfer transfer = backend.annotateFileTransfer(fileName, null, null, null, storageGroup);
+			if (transfer == null || !transfer.isOpen()) {
+				throw new FileNotFoundException(String.format("Remote file '%s' can not be opened", fileName));
+			}
+			return new Segment(backend, transfer);
+		} catch (IOException e) {
+			backend.disconnect();
+			throw e;
+		}
+	}
+	
+	private Callable<Long> createSegmentTask(
+		final IFileTransfer transfer, final FileChannel target, 
+		final long start, final long end, final long fileSize, final AtomicLong transferred
+	) {
+		return new Callable<Long>() {
+			public Long call() throws IOException {
+				// seek to the start of the segment
+				if (start > 0) {
+					final long position = transfer.seek(0, start, Seek.ABSOLUTE);
+					if (position != start) {
+						throw new IOException(String.format(
+							"Unable to seek to position %d, the position is %d",
+							Long.valueOf(start),
+							Long.valueOf(position)
+						));
+					}
+				}
+				
+				// read the segment
+				long position = start;
+				final byte[] buffer = new byte[AdaptiveBlockSize.MAX_BLOCK_SIZE];
+				while (position < end) {
+					final int read = transfer.readBlockPipelined(buffer, Math.min(buffer.length, transfer.getBlockSize()), end - position);
+					if (read == -1) break;
+					else if (read == 0) {
+						throw new IOException(String.format(
+							"No data returned at position %d",
+							Long.valueOf(position)
+						));
+					}
+					
+					// write the block to its position in the target file
+					final ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+					while (data.hasRemaining()) {
+						position += target.write(data, position);
+					}
+					
+					final long total = transferred.addAndGet(read);
+					if (SegmentedDownloader.this.listener != null) {
+						SegmentedDownloader.this.listener.transferProgress(total, fileSize);
+					}
+				}
+				
+				if (position != end) {
+					throw new IOException(String.format(
+						"The segment %d-%d ended at position %d",
+						Long.valueOf(start),
+						Long.valueOf(end),
+						Long.valueOf(position)
+					));
+				}
+				return Long.valueOf(position - start);
+			}
+		};
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jmythapi.IVersionable;
+import org.jmythapi.protocol.IMythPacket;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.utils.PacketUtils;
+
+/**
+ * A pre-encoded request with a fixed shape.
+ * <p>
+ * Some requests, e.g. {@link IMythCommand#QUERY_FILETRANSFER_REQUEST_BLOCK REQUEST_BLOCK} or
+ * {@link IMythCommand#QUERY_RECORDER_IS_RECORDING IS_RECORDING}, are sent very often and only differ
+ * in a few numeric arguments. Instead of building a new {@link AMythRequest request}, {@link IMythPacket packet}
+ * and payload string for each call, a template encodes the constant parts of the request only once.
+ * Numeric arguments, marked with {@link #VALUE}, are written directly into a reusable byte buffer.
+ * <p>
+ * Templates are bound to a single connection and protocol version and can be sent via
+ * {@link org.jmythapi.protocol.IBackendConnection#writeTemplate(RequestTemplate, long...) writeTemplate}.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    // create the template once
+ *    RequestTemplate template = new RequestTemplate(
+ *       new AMythCommand(protoVersion, IMythCommand.QUERY_FILETRANSFER, Integer.toString(socketId)),
+ *       IMythCommand.QUERY_FILETRANSFER_REQUEST_BLOCK,
+ *       RequestTemplate.VALUE
+ *    );
+ *
+ *    // send the request multiple times
+ *    connection.writeTemplate(template, 65536);
+ * </pre>}
+ */
+public final class RequestTemplate implements IVersionable {
+	/**
+	 * The placeholder for a numeric request argument.
+	 */
+	public static final String VALUE = "%d";
+
+	/**
+	 * The maximum amount of characters needed to print a long value.
+	 */
+	private static final int MAX_LONG_LENGTH = 20;
+
+	/**
+	 * The protocol version of this template.
+	 */
+	private final ProtocolVersion protoVersion;
+
+	/**
+	 * The name of the command.
+	 */
+	private final String commandName;
+
+	/**
+	 * The encoded constant parts of the payload, including the argument delimiters.
+	 * The numeric values are written between these fragments.
+	 */
+	private final byte[][] fragments;
+
+	/**
+	 * The reusable output buffer.
+	 */
+	private final byte[] buffer;
+
+	/**
+	 * Creates a new template.
+	 *
+	 * @param command
+	 * 		the command of the request
+	 * @param requestArgs
+	 * 		the request arguments. Numeric arguments, that should be set when sending the request,
+	 * 		must be marked with {@link #VALUE}.
+	 */
+	public RequestTemplate(IMythCommand command, String... requestArgs) {
+		if (command == null) throw new NullPointerException("The command must not be null");
+
+		this.protoVersion = command.getVersionNr();
+		this.commandName = command.getName();
+
+		try {
+			final byte[] delim = IMythPacket.DELIM.getBytes("UTF-8");
+			final List<byte[]> fragmentList = new ArrayList<byte[]>();
+
+			// the command is always constant
+			final ByteArrayOutputStream fragment = new ByteArrayOutputStream();
+			fragment.write(command.toString().getBytes("UTF-8"));
+
+			if (requestArgs != null) {
+				for (String arg : requestArgs) {
+					fragment.write(delim);
+					if (VALUE.equals(arg)) {
+						// the value is inserted later
+						fragmentList.add(fragment.toByteArray());
+						fragment.reset();
+					} else if (arg != null) {
+						fragment.write(arg.getBytes("UTF-8"));
+					}
+				}
+			}
+			fragmentList.add(fragment.toByteArray());
+			this.fragments = fragmentList.toArray(new byte[fragmentList.size()][]);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to encode the request template.", e);
+		}
+
+		int size = PacketUtils.SIZE_STRING_LENGTH + (this.fragments.length - 1) * MAX_LONG_LENGTH;
+		for (byte[] fragment : this.fragments) size += fragment.length;
+		this.buffer = new byte[size];
+	}
+
+	public ProtocolVersion getVersionNr() {
+		return this.protoVersion;
+	}
+
+	/**
+	 * Gets the name of the command.
+	 *
+	 * @return
+	 * 		the command name, e.g. {@code QUERY_FILETRANSFER}
+	 */
+	public String getCommandName() {
+		return this.commandName;
+	}
+
+	/**
+	 * Gets the amount of numeric values required by this template.
+	 *
+	 * @return
+	 * 		the amount of {@link #VALUE} placeholders
+	 */
+	public int getValueCount() {
+		return this.fragments.length - 1;
+	}
+
+	/**
+	 * Writes the request, including the payload size, to the given stream.
+	 *
+	 * @param output
+	 * 		the output stream
+	 * @param values
+	 * 		the numeric values of the request
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public synchronized void writeTo(OutputStream output, long... values) throws IOException {
+		if (output == null) throw new NullPointerException("The output-stream is null");
+		this.checkValues(values);
+
+		final byte[] buf = this.buffer;
+		int pos = PacketUtils.SIZE_STRING_LENGTH;
+		for (int i = 0; i < this.fragments.length; i++) {
+			if (i > 0) pos = writeLong(values[i - 1], buf, pos);
+
+			final byte[] fragment = this.fragments[i];
+			System.arraycopy(fragment, 0, buf, pos, fragment.length);
+			pos += fragment.length;
+		}
+
+		// writing the payload size, padded with spaces
+		final int payloadSize = pos - PacketUtils.SIZE_STRING_LENGTH;
+		Arrays.fill(buf, 0, PacketUtils.SIZE_STRING_LENGTH, (byte) ' ');
+		writeLong(payloadSize, buf, 0);
+
+		output.write(buf, 0, pos);
+		output.flush();
+	}
+
+	/**
+	 * Returns the request packet as string.
+	 *
+	 * @param values
+	 * 		the numeric values of the request
+	 * @return
+	 * 		the request as string, e.g. {@code 48      QUERY_FILETRANSFER 6[]:[]REQUEST_BLOCK[]:[]65536}
+	 */
+	public String toString(long... values) {
+		try {
+			final ByteArrayOutputStream bout = new ByteArrayOutputStream();
+			this.writeTo(bout, values);
+			return bout.toString("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		} catch (IOException e) {
+			assert(false) : "this should never occure";
+			return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		try {
+			final StringBuilder buff = new StringBuilder();
+			for (int i = 0; i < this.fragments.length; i++) {
+				if (i > 0) buff.append(VALUE);
+				buff.append(new String(this.fragments[i], "UTF-8"));
+			}
+			return buff.toString();
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void checkValues(long[] values) {
+		final int length = (values == null) ? 0 : values.length;
+		if (length != this.fragments.length - 1) {
+			throw new IllegalArgumentException(String.format(
+				"The template '%s' requires %d values but %d were given.",
+				this.commandName, Integer.valueOf(this.fragments.length - 1), Integer.valueOf(length)
+			));
+		}
+	}
+
+	/**
+	 * Writes the decimal representation of the given value into the buffer.
+	 *
+	 * @return
+	 * 		the position after the last written character
+	 */
+	private static int writeLong(long value, byte[] buf, int pos) {
+		if (value == Long.MIN_VALUE) {
+			final byte[] minValue = Long.toString(value).getBytes();
+			System.arraycopy(minValue, 0, buf, pos, minValue.length);
+			return pos + minValue.length;
+		}
+
+		if (value < 0) {
+			buf[pos++] = '-';
+			value = -value;
+		}
+
+		// determine the amount of digits
+		int digits = 1;
+		for (long v = value; v >= 10; v /= 10) digits++;
+
+		// write the digits from right to left
+		int end = pos + digits;
+		for (int i = end - 1; i >= pos; i--) {
+			buf[i] = (byte) ('0' + (value % 10));
+			value /= 10;
+		}
+		return end;
+	}
+}
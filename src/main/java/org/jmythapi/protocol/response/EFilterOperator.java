@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response;
+
+/**
+ * Specifies how a property value is compared by a property filter.
+ * 
+ * @see ProgramInfoFilters#property(IProgramInfo.Props, EFilterOperator, Object)
+ */
+public enum EFilterOperator {
+	/**
+	 * The property value must be equal to the given value.
+	 */
+	EQUALS,
+	
+	/**
+	 * The property value must not be equal to the given value.
+	 * <p>
+	 * This is the only operator accepting {@code null} property values for a non-{@code null} comparison value.
+	 */
+	NOT_EQUALS,
+	
+	/**
+	 * The property value must be less than the given value.
+	 * <p>
+	 * Only supported for numeric, date and string properties.
+	 */
+	LESS,
+	
+	/**
+	 * The property value must be less than or equal to the given value.
+	 * <p>
+	 * Only supported for numeric, date and string properties.
+	 */
+	LESS_OR_EQUAL,
+	
+	/**
+	 * The property value must be greater than the given value.
+	 * <p>
+	 * Only supported for numeric, date and string properties.
+	 */
+	GREATER,
+	
+	/**
+	 * The property value must be greater than or equal to the given value.
+	 * <p>
+	 * Only supported for numeric, date and string properties.
+	 */
+	GREATER_OR_EQUAL,
+	
+	/**
+	 * The property value must start with the given value.
+	 * <p>
+	 * Only supported for string properties.
+	 */
+	STARTS_WITH,
+	
+	/**
+	 * The property value must contain the given value.
+	 * <p>
+	 * Only supported for string properties.
+	 */
+	CONTAINS
+}
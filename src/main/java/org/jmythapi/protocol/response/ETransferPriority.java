@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response;
+
+/**
+ * The priority class of a file transfer.
+ * <p>
+ * If the bandwidth is limited by a transfer scheduler, the available bandwidth is shared
+ * between all waiting transfers in proportion to the weight of their priority class.
+ * 
+ * @see IFileTransfer#setTransferPriority(ETransferPriority)
+ */
+public enum ETransferPriority {
+	/**
+	 * Streams watched by a user, e.g. live-TV or recording playback.
+	 */
+	INTERACTIVE(16),
+	
+	/**
+	 * Transfers without specific requirements. This is the default.
+	 */
+	NORMAL(4),
+	
+	/**
+	 * Bulk copies that should only use the bandwidth left by other transfers.
+	 */
+	BACKGROUND(1);
+	
+	private final int weight;
+	
+	private ETransferPriority(int weight) {
+		this.weight = weight;
+	}
+	
+	/**
+	 * Gets the share of the bandwidth, relative to the other priority classes.
+	 * 
+	 * @return
+	 * 		the weight of this priority class
+	 */
+	public int getWeight() {
+		return this.weight;
+	}
+}
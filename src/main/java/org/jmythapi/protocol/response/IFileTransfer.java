@@ -27,12 +27,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 
 import org.jmythapi.protocol.IBackend;
 import org.jmythapi.protocol.annotation.MythParameterType;
 import org.jmythapi.protocol.annotation.MythProtoVersionAnnotation;
 import org.jmythapi.protocol.request.IMythCommand;
+import org.jmythapi.protocol.response.impl.AdaptiveBlockSize;
 import org.jmythapi.protocol.response.impl.FileTransfer;
+import org.jmythapi.protocol.response.impl.FileTransferChannel;
 
 /**
  * An interface to transfer files from and to a backend.
@@ -195,6 +200,130 @@ public interface IFileTransfer extends ITransferable<IFileTransfer.Props> {
 	 */
 	public int readBlock(byte[] buffer, int requestedSize) throws IOException;
 	
+	/**
+	 * Reads the next block of a sequential transfer, keeping multiple block requests in flight.
+	 * <p>
+	 * {@link #readBlock(byte[], int)} waits for each block before the next block is requested, therefore
+	 * the throughput is limited to one block per round trip. This function instead sends up to 
+	 * {@link #getPipelineWindow() window} requests in advance and reads the blocks in request order. 
+	 * <p>
+	 * Blocks are only requested within the given amount of remaining bytes. The data of all requested blocks
+	 * must be read before any other command can be sent. Other functions of this object therefore 
+	 * {@link #cancelPendingBlocks() discard} all pending blocks automatically.
+	 * 
+	 * <h4>Usage example:</h4>
+	 * {@mythCodeExample <pre>
+	 *    transfer.setPipelineWindow(8);
+	 *    
+	 *    byte[] buffer = new byte[65536];
+	 *    long remaining = transfer.getFileSize();
+	 *    while(remaining &gt; 0) &#123;
+	 *       int read = transfer.readBlockPipelined(buffer, buffer.length, remaining);
+	 *       if(read == -1) break;
+	 *       
+	 *       output.write(buffer, 0, read);
+	 *       remaining -= read;
+	 *    &#125;
+	 * </pre>}
+	 * 
+	 * @param buffer
+	 * 		the byte buffer to fill with data. This must be at least as large as the block size.
+	 * @param blockSize
+	 * 		the size of the blocks to request
+	 * @param remaining
+	 * 		the amount of bytes still to read, starting with the returned block
+	 * @return
+	 * 		the read byte count or {@code -1} if no more bytes are remaining
+	 * @throws IOException
+	 * 		on communication errors, or if the backend has returned less data than requested
+	 * 		while further requests were pending
+	 * 
+	 * @see #setPipelineWindow(int)
+	 */
+	public int readBlockPipelined(byte[] buffer, int blockSize, long remaining) throws IOException;
+	
+	/**
+	 * Discards all blocks requested by {@link #readBlockPipelined(byte[], int, long)} but not read so far.
+	 * <p>
+	 * The data of the pending blocks is read and dropped.
+	 * 
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public void cancelPendingBlocks() throws IOException;
+	
+	/**
+	 * Gets the maximum amount of block requests kept in flight by {@link #readBlockPipelined(byte[], int, long)}.
+	 * 
+	 * @return
+	 * 		the pipeline window
+	 */
+	public int getPipelineWindow();
+	
+	/**
+	 * Sets the maximum amount of block requests kept in flight by {@link #readBlockPipelined(byte[], int, long)}.
+	 * <p>
+	 * A window of {@code 1} disables pipelining. To saturate a link, the window multiplied with the block size
+	 * should be larger than the bandwidth-delay product of the link.
+	 * 
+	 * @param window
+	 * 		the pipeline window, at least {@code 1}
+	 */
+	public void setPipelineWindow(int window);
+	
+	/**
+	 * Gets the priority class of this transfer.
+	 * 
+	 * @return
+	 * 		the priority class, {@link ETransferPriority#NORMAL} by default
+	 */
+	public ETransferPriority getTransferPriority();
+	
+	/**
+	 * Sets the priority class of this transfer.
+	 * <p>
+	 * If the transfer scheduler limits the bandwidth, the bandwidth is shared 
+	 * between the waiting transfers according to the weights of their priority classes.
+	 * 
+	 * @param priority
+	 * 		the priority class
+	 */
+	public void setTransferPriority(ETransferPriority priority);
+	
+	/**
+	 * Checks if the block size is adjusted to the link.
+	 * 
+	 * @return
+	 * 		{@code true} if the block size is adaptive, which is the default
+	 * 
+	 * @see #setAdaptiveBlockSize(boolean)
+	 */
+	public boolean isAdaptiveBlockSize();
+	
+	/**
+	 * Enables or disables the adjustment of the block size.
+	 * <p>
+	 * If enabled, the block size used by {@link #transferTo(WritableByteChannel) transferTo} and the 
+	 * {@link #getInputStream() input stream} is adjusted to the throughput and reply latency measured 
+	 * by {@link #readBlockPipelined(byte[], int, long)}. See {@link AdaptiveBlockSize} for details.
+	 * <p>
+	 * If disabled, blocks of {@link FileTransfer#DEFAULT_BUFFER_SIZE} bytes are requested.
+	 * 
+	 * @param adaptive
+	 * 		{@code true} to adjust the block size
+	 */
+	public void setAdaptiveBlockSize(boolean adaptive);
+	
+	/**
+	 * Gets the size of the blocks to request next.
+	 * 
+	 * @return
+	 * 		the current block size
+	 * 
+	 * @see #setAdaptiveBlockSize(boolean)
+	 */
+	public int getBlockSize();
+	
 	/**
 	 * Requests data from the backend.
 	 * 
@@ -313,10 +442,85 @@ public interface IFileTransfer extends ITransferable<IFileTransfer.Props> {
 	 */
 	public abstract void transferTo(OutputStream target) throws IOException;	
 	
+	/**
+	 * Copies the remote file into the given channel.
+	 * <p>
+	 * The received blocks are written directly into the channel, without an intermediate output stream buffer.
+	 * 
+	 * @param target
+	 * 		the target channel
+	 * @throws IOException 
+	 * 		on communication errors
+	 * 
+	 * @see #transferTo(WritableByteChannel, ITransferProgressListener)
+	 */
+	public void transferTo(WritableByteChannel target) throws IOException;
+	
+	/**
+	 * Copies the remote file into the given channel and reports the progress.
+	 * <p>
+	 * The received blocks are written directly into the channel, without an intermediate output stream buffer.
+	 * 
+	 * <h4>Usage example:</h4>
+	 * {@mythCodeExample <pre>
+	 *    FileChannel target = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+	 *    try &#123;
+	 *       transfer.transferTo(target, new ITransferProgressListener() &#123;
+	 *          public void transferProgress(long transferred, long total) &#123;
+	 *             System.out.println(String.format("%d of %d bytes transferred", transferred, total));
+	 *          &#125;
+	 *       &#125;);
+	 *    &#125; finally &#123;
+	 *       target.close();
+	 *    &#125;
+	 * </pre>}
+	 * 
+	 * @param target
+	 * 		the target channel
+	 * @param listener
+	 * 		the listener to inform about the progress or {@code null}
+	 * @throws IOException 
+	 * 		on communication errors
+	 */
+	public void transferTo(WritableByteChannel target, ITransferProgressListener listener) throws IOException;
+	
+	/**
+	 * Copies the remote file into the given local file.
+	 * <p>
+	 * An existing file is overwritten.
+	 * 
+	 * @param target
+	 * 		the local file
+	 * @throws IOException 
+	 * 		on communication errors
+	 * 
+	 * @see #transferTo(WritableByteChannel, ITransferProgressListener)
+	 */
+	public void transferTo(Path target) throws IOException;
+	
+	/**
+	 * Copies the remote file into the given local file and reports the progress.
+	 * <p>
+	 * An existing file is overwritten.
+	 * 
+	 * @param target
+	 * 		the local file
+	 * @param listener
+	 * 		the listener to inform about the progress or {@code null}
+	 * @throws IOException 
+	 * 		on communication errors
+	 * 
+	 * @see #transferTo(WritableByteChannel, ITransferProgressListener)
+	 */
+	public void transferTo(Path target, ITransferProgressListener listener) throws IOException;
+	
 	/**
 	 * Gets an input stream to read the file data.
 	 * <p>
 	 * This function creates an input-stream that can be used to read the data of this file-transfer object.
+	 * <p>
+	 * The stream supports {@link InputStream#mark(int) mark} and {@link InputStream#reset() reset}. 
+	 * Skipping and resetting outside of the buffered data is done using {@link #seek(long, long, ITransferable.Seek) seek}.
 	 * 
 	 * @return
 	 * 		an input stream to read the file
@@ -339,4 +543,33 @@ public interface IFileTransfer extends ITransferable<IFileTransfer.Props> {
 	 * 		on communication errors
 	 */
 	public InputStream getInputStream(int chunkSize) throws IOException;
+	
+	/**
+	 * Gets a channel to randomly access the file data.
+	 * <p>
+	 * The channel caches the read blocks, therefore repeated reads of the same file region require no further requests. 
+	 * See {@link FileTransferChannel} for details.
+	 * 
+	 * @return
+	 * 		a read-only channel to read the file
+	 * @throws IOException
+	 * 		on communication errors
+	 * 
+	 * @see #getChannel(int, int)
+	 */
+	public SeekableByteChannel getChannel() throws IOException;
+	
+	/**
+	 * Gets a channel to randomly access the file data.
+	 * 
+	 * @param blockSize
+	 * 		the size of the blocks to fetch and cache
+	 * @param cacheSize
+	 * 		the maximum amount of cached blocks
+	 * @return
+	 * 		a read-only channel to read the file
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public SeekableByteChannel getChannel(int blockSize, int cacheSize) throws IOException;
 }
\ No newline at end of file
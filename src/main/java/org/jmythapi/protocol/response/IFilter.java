@@ -22,5 +22,17 @@ package org.jmythapi.protocol.response;
 import org.jmythapi.IPropertyAware;
 
 public interface IFilter <P extends Enum<P>, E extends IPropertyAware<P>> {
+	/**
+	 * Tests if the filter criteria matches onto the given object.
+	 * <p>
+	 * For large lists this function may be called concurrently by multiple threads, therefore filters must be thread-safe.
+	 * 
+	 * @param entity
+	 * 		the object that should be tested
+	 * @return
+	 * 		{@code true} if the given object is accepted by the filter
+	 * 
+	 * @see org.jmythapi.protocol.utils.PropertyAwareUtils#groupListByProperty(Iterable, Enum, IFilter)
+	 */
 	public boolean accept(E entity);
 }
@@ -917,6 +917,19 @@ public interface IProgramInfo extends IBasicChannelInfo, IBasicInputInfo, IBasic
 	 */
 	public String getUniqueRecordingId();	
 	
+	/**
+	 * A compact numeric representation of the {@link #getUniqueRecordingId() unique recording id}.
+	 * <p>
+	 * The upper 32 bits of the key contain the channel id, the lower 32 bits contain the recording 
+	 * start time in seconds since epoch. Two recordings have the same key if they have the 
+	 * same unique recording id. The key is calculated only once and is therefore well suited
+	 * for maps, sets and duplicate detection.
+	 * 
+	 * @return
+	 * 		the unique recording key or {@code -1} if this recording is not valid.
+	 */
+	public long getUniqueRecordingKey();
+	
 	/* ====================================================================
 	 * IBasicProgramInfo methods.
 	 * ==================================================================== */
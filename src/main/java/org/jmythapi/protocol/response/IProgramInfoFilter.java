@@ -63,6 +63,12 @@ package org.jmythapi.protocol.response;
 public interface IProgramInfoFilter extends IFilter<IProgramInfo.Props, IProgramInfo> {
 	/**
 	 * Tests if the filter criteria matches onto the given program.
+	 * <p>
+	 * <b>Note:</b> When filtering a {@link IProgramInfoList program list}, the given program may be a reused object, 
+	 * which is moved to the next program of the list after this function has returned. A filter therefore must not 
+	 * keep a reference to the given program.
+	 * <p>
+	 * For large lists this function is called concurrently by multiple threads, therefore filters must be thread-safe.
 	 * 
 	 * @param program
 	 * 		the program that should be tested
@@ -19,6 +19,7 @@
  */
 package org.jmythapi.protocol.response;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -304,6 +305,122 @@ public interface IProgramInfoList extends Iterable<IProgramInfo>, IVersionable,
 	 */
 	public Map<Object, IProgramInfoList> groupBy(IProgramInfo.Props prop,IProgramInfoFilter filter); 
 	
+	/**
+	 * Gets all programs of the given channel.
+	 * <p>
+	 * A hash index over all channel IDs is created on first call, 
+	 * therefore subsequent lookups do not need to scan the whole list.
+	 * 
+	 * @param channelId
+	 * 		the channel ID
+	 * @return
+	 * 		the programs of the channel
+	 * 
+	 * @see IProgramInfo#getChannelID()
+	 */
+	public IProgramInfoList findByChannelID(int channelId);
+	
+	/**
+	 * Gets all programs of the given recording group.
+	 * <p>
+	 * A hash index over all recording groups is created on first call.
+	 * 
+	 * @param recordingGroup
+	 * 		the recording group, e.g. {@code Default}
+	 * @return
+	 * 		the programs of the recording group
+	 * 
+	 * @see IProgramInfo#getRecordingGroup()
+	 */
+	public IProgramInfoList findByRecordingGroup(String recordingGroup);
+	
+	/**
+	 * Gets all programs of the given storage group.
+	 * <p>
+	 * A hash index over all storage groups is created on first call.
+	 * 
+	 * @param storageGroup
+	 * 		the storage group, e.g. {@code Default}
+	 * @return
+	 * 		the programs of the storage group
+	 * 
+	 * @see IProgramInfo#getStorageGroup()
+	 */
+	public IProgramInfoList findByStorageGroup(String storageGroup);
+	
+	/**
+	 * Gets all programs having the given title.
+	 * <p>
+	 * A hash index over all titles is created on first call.
+	 * 
+	 * @param title
+	 * 		the exact title
+	 * @return
+	 * 		the programs with the given title
+	 * 
+	 * @see IProgramInfo#getTitle()
+	 */
+	public IProgramInfoList findByTitle(String title);
+	
+	/**
+	 * Gets all programs starting in the given time range.
+	 * <p>
+	 * An index of all programs sorted by start time is created on first call. 
+	 * Subsequent lookups only need logarithmic time.
+	 * 
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @return
+	 * 		the found programs, sorted by start time
+	 * 
+	 * @see IProgramInfo#getStartDateTime()
+	 */
+	public IProgramInfoList findStartingBetween(Date from, Date to);
+	
+	/**
+	 * Gets all programs airing in the given time range.
+	 * <p>
+	 * A program is airing in the time range, if it starts before the end of the range
+	 * and ends after the start of the range.
+	 * 
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @return
+	 * 		the found programs, sorted by start time
+	 * 
+	 * @see IProgramInfo#getStartDateTime()
+	 * @see IProgramInfo#getEndDateTime()
+	 */
+	public IProgramInfoList findAiringBetween(Date from, Date to);
+	
+	/**
+	 * Gets all programs sorted by the given property.
+	 * <p>
+	 * Each property value is decoded only once into a primitive sort key. 
+	 * Programs without a value are sorted first in ascending order and last in descending order.
+	 * Programs with equal values keep their relative order.
+	 * 
+	 * {@mythCodeExample <pre>
+	 *    // the newest recordings first
+	 *    IProgramInfoList recordings = backend.queryRecordings();
+	 *    IProgramInfoList sorted = recordings.sortBy(IProgramInfo.Props.REC_START_TIME, false);
+	 * </pre>}
+	 * 
+	 * @param prop
+	 * 		the property to sort by
+	 * @param ascending
+	 * 		{@code true} to sort in ascending order or {@code false} to sort in descending order
+	 * @return
+	 * 		a new list containing the sorted programs
+	 * 
+	 * @see org.jmythapi.protocol.response.impl.comparators.ProgramInfoComparator
+	 */
+	public IProgramInfoList sortBy(IProgramInfo.Props prop, boolean ascending);
+	
 	/**
 	 * Gets the sum of all file sizes.
 	 * 
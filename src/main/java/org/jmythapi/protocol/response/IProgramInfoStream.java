@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import org.jmythapi.IVersionable;
+
+/**
+ * A stream of programs, decoded one at a time while they are received from the backend.
+ * <p>
+ * In contrast to an {@link IProgramInfoList}, which is created after the whole response was received,
+ * a stream returns the first program as soon as it was received. Only the current program is held in memory,
+ * therefore callers that just aggregate or filter programs need a constant amount of memory regardless of
+ * the size of the response.
+ * <p>
+ * While a stream is open, the backend connection can not be used for other commands. Each returned program
+ * is an independent object and may be stored.
+ * <p>
+ * A stream is closed automatically after the last program was read. If a caller stops earlier, the stream
+ * must be {@link #close() closed} to skip the remaining programs.
+ * <p>
+ * Communication errors during iteration are reported as {@link java.io.UncheckedIOException}.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    IProgramInfoStream recordings = backend.queryRecordingsStream(null);
+ *    try &#123;
+ *       System.out.println("Recordings: " + recordings.size());
+ *       while(recordings.hasNext()) &#123;
+ *          IProgramInfo recording = recordings.next();
+ *          System.out.println(recording.getFullTitle());
+ *       &#125;
+ *    &#125; finally &#123;
+ *       recordings.close();
+ *    &#125;
+ * </pre>}
+ */
+public interface IProgramInfoStream extends Iterator<IProgramInfo>, Closeable, IVersionable {
+	/**
+	 * Gets the total amount of programs of the response.
+	 * 
+	 * @return
+	 * 		the amount of programs, as announced by the response header
+	 */
+	public int size();
+	
+	/**
+	 * Skips all remaining programs.
+	 * 
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public void close() throws IOException;
+}
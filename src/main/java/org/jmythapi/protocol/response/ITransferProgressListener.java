@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response;
+
+/**
+ * A listener to be informed about the progress of a file transfer.
+ * 
+ * @see IFileTransfer#transferTo(java.nio.channels.WritableByteChannel, ITransferProgressListener)
+ */
+public interface ITransferProgressListener {
+	/**
+	 * Called after a block of data was transferred.
+	 * <p>
+	 * This function is called by the transferring thread, therefore it should return quickly.
+	 * 
+	 * @param transferred
+	 * 		the amount of bytes transferred so far
+	 * @param total
+	 * 		the total amount of bytes to transfer
+	 */
+	public void transferProgress(long transferred, long total);
+}
@@ -38,6 +38,7 @@ import org.jmythapi.protocol.response.impl.filters.ProgramInfoConjunctionFilter;
 import org.jmythapi.protocol.response.impl.filters.ProgramInfoDisjunctionFilter;
 import org.jmythapi.protocol.response.impl.filters.ProgramInfoFilter;
 import org.jmythapi.protocol.response.impl.filters.ProgramInfoNegotiationFilter;
+import org.jmythapi.protocol.response.impl.filters.ProgramInfoPropertyFilter;
 import org.jmythapi.protocol.response.impl.filters.ProgramInfoRecorderFilter;
 import org.jmythapi.protocol.response.impl.filters.ProgramInfoRecordingGroupFilter;
 import org.jmythapi.protocol.response.impl.filters.ProgramInfoRecordingIdFilter;
@@ -168,6 +169,35 @@ public class ProgramInfoFilters {
 		return new ProgramInfoChannelIdRecordingStartTimeFilter(channelId, recordingStartTime);
 	}
 	
+	/**
+	 * Creates a filter to filter recordings by comparing a property with a given value.
+	 * <p>
+	 * The filter compares the unparsed property values and therefore is much faster than 
+	 * a custom filter calling the getter methods of a program. If applied to a program list, 
+	 * the filter is evaluated on the columns of the list.
+	 * 
+	 * {@mythCodeExample <pre>
+	 *    // all recordings of channel 1001 that are larger than 1 GB
+	 *    IProgramInfoList largeRecordings = recordings.filter(ProgramInfoFilters.and(
+	 *       ProgramInfoFilters.property(Props.CHANNEL_ID, EFilterOperator.EQUALS, 1001),
+	 *       ProgramInfoFilters.property(Props.FILESIZE, EFilterOperator.GREATER, 1024L * 1024 * 1024)
+	 *    ));
+	 * </pre>}
+	 * 
+	 * @param prop
+	 * 		the property to compare
+	 * @param operator
+	 * 		the comparison operator
+	 * @param value
+	 * 		the value to compare the property with
+	 * @throws IllegalArgumentException
+	 * 		if the operator is not supported for the property
+	 * @see ProgramInfoPropertyFilter
+	 */
+	public static IProgramInfoFilter property(IProgramInfo.Props prop, EFilterOperator operator, Object value) {
+		return new ProgramInfoPropertyFilter(prop, operator, value);
+	}
+	
 	public static IProgramInfoFilter and(IProgramInfoFilter... filters) {
 		return new ProgramInfoConjunctionFilter(filters);
 	}
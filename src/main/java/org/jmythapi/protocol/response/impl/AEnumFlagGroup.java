@@ -66,7 +66,18 @@ public abstract class AEnumFlagGroup <E extends Enum<E> & IFlag> extends AFlagGr
 	
 	@Override
 	public boolean isSupportedFlag(E flag) {
-		return this.getSupportedFlags().contains(flag);
+		return EnumUtils.isEnumSupported(flag, this.protoVersion);
+	}
+	
+	@Override
+	public boolean isSet(E flag) {
+		// lookup the precalculated flag value
+		final Long flagLong = EnumUtils.getFlagValue(this.protoVersion, flag);
+		if (flagLong == null) {
+			// let the superclass report unsupported flags
+			return super.isSet(flag);
+		}
+		return isSet(flagLong);
 	}
 	
 	public EnumMap<E,Boolean> getFlagMap() {
@@ -90,12 +101,9 @@ public abstract class AEnumFlagGroup <E extends Enum<E> & IFlag> extends AFlagGr
 	) {
 		long flagValues = 0;
 		if(flags != null && flags.length > 0) {
-			final Class<E> enumClass = flags[0].getDeclaringClass();
-			final EnumSet<E> supportedFlags = getSupportedFlags(enumClass, protoVersion);
-			
 			for(E flag : flags) {
 				// check if the given flag is supported
-				if(!supportedFlags.contains(flag)) {
+				if(!EnumUtils.isEnumSupported(flag, protoVersion)) {
 					Logger.getLogger(AEnumFlagGroup.class.getName()).warning(String.format(
 						"The enumeration property '%s' is not supported in protocol version '%s'.",
 						flag, protoVersion
@@ -104,7 +112,7 @@ public abstract class AEnumFlagGroup <E extends Enum<E> & IFlag> extends AFlagGr
 				}
 				
 				// getting the current flag value
-				final Long flagLong = getFlagValue(protoVersion,flag);
+				final Long flagLong = EnumUtils.getFlagValue(protoVersion,flag);
 				if (flagLong == null) {
 					Logger.getLogger(AEnumFlagGroup.class.getName()).warning(String.format(
 						"Unable to determine the integer value for flag %s",
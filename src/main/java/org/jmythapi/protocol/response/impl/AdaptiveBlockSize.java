@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determines the size of the blocks requested by a {@link FileTransfer} from the measured throughput 
+ * and reply latency.
+ * <p>
+ * The block size is adjusted by hill climbing: after each measurement round of {@link #SAMPLE_BLOCKS} blocks, 
+ * the block size is doubled or halved. The direction is kept as long as the throughput improves, and is 
+ * reversed if the throughput drops. If the throughput does not change significantly, the block size is kept.
+ * <p>
+ * Independently of the throughput, the block size is halved if the average time between sending a request
+ * and receiving its reply exceeds the {@link #getTargetLatency() target latency}. This avoids read timeouts 
+ * on slow links.
+ * <p>
+ * The block size is always kept between {@link #MIN_BLOCK_SIZE} and the {@link #getMaxBlockSize() maximum block size}.
+ * The backend may return less data than requested if a block is too large. Therefore a block larger than the 
+ * {@link #getConfirmedBlockSize() confirmed block size} must be requested while no other block is pending. If the 
+ * backend returns less data for such a block, the returned size is used as new maximum. Short blocks at the end of 
+ * the file or of smaller sizes do not change the maximum.
+ */
+public class AdaptiveBlockSize {
+	/**
+	 * The minimum block size.
+	 */
+	public static final int MIN_BLOCK_SIZE = 16 * 1024;
+	
+	/**
+	 * The default maximum block size.
+	 */
+	public static final int MAX_BLOCK_SIZE = 1024 * 1024;
+	
+	/**
+	 * The default maximum reply latency.
+	 */
+	public static final long DEFAULT_TARGET_LATENCY = 1000;
+	
+	/**
+	 * The amount of blocks measured before the block size is adjusted.
+	 */
+	public static final int SAMPLE_BLOCKS = 8;
+	
+	/**
+	 * The relative throughput change below which the throughput is treated as unchanged.
+	 */
+	private static final double THRESHOLD = 0.05;
+	
+	private int blockSize;
+	private int maxBlockSize = MAX_BLOCK_SIZE;
+	
+	/**
+	 * The largest block size returned completely by the backend.
+	 */
+	private int confirmedBlockSize;
+	private long targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TARGET_LATENCY);
+	
+	/**
+	 * {@code true} if the block size was increased last.
+	 */
+	private boolean growing = true;
+	
+	/**
+	 * The throughput in bytes per second measured in the previous round, or {@code -1}.
+	 */
+	private double lastThroughput = -1;
+	
+	private int sampleCount = 0;
+	private long sampleBytes = 0;
+	private long sampleNanos = 0;
+	private long sampleLatencyNanos = 0;
+	
+	/**
+	 * Creates a new controller.
+	 * 
+	 * @param initialBlockSize
+	 * 		the block size to start with
+	 */
+	public AdaptiveBlockSize(int initialBlockSize) {
+		this.blockSize = this.clamp(initialBlockSize);
+		this.confirmedBlockSize = this.blockSize;
+	}
+	
+	/**
+	 * Gets the block size to use for the next request.
+	 * 
+	 * @return
+	 * 		the current block size
+	 */
+	public synchronized int getBlockSize() {
+		return this.blockSize;
+	}
+	
+	/**
+	 * Gets the largest block size the backend has returned completely.
+	 * <p>
+	 * Larger blocks may be shortened by the backend and therefore must not be requested while other blocks are pending.
+	 * 
+	 * @return
+	 * 		the confirmed block size
+	 */
+	public synchronized int getConfirmedBlockSize() {
+		return this.confirmedBlockSize;
+	}
+	
+	/**
+	 * Gets the maximum block size.
+	 * 
+	 * @return
+	 * 		the maximum block size
+	 */
+	public synchronized int getMaxBlockSize() {
+		return this.maxBlockSize;
+	}
+	
+	/**
+	 * Sets the maximum block size.
+	 * 
+	 * @param maxBlockSize
+	 * 		the maximum block size, at least {@link #MIN_BLOCK_SIZE}
+	 */
+	public synchronized void setMaxBlockSize(int maxBlockSize) {
+		this.maxBlockSize = Math.max(MIN_BLOCK_SIZE, maxBlockSize);
+		this.blockSize = this.clamp(this.blockSize);
+	}
+	
+	/**
+	 * Gets the maximum average reply latency.
+	 * 
+	 * @return
+	 * 		the target latency in milliseconds
+	 */
+	public synchronized long getTargetLatency() {
+		return TimeUnit.NANOSECONDS.toMillis(this.targetLatencyNanos);
+	}
+	
+	/**
+	 * Sets the maximum average reply latency.
+	 * 
+	 * @param targetLatency
+	 * 		the target latency in milliseconds
+	 */
+	public synchronized void setTargetLatency(long targetLatency) {
+		if (targetLatency <= 0) throw new IllegalArgumentException("The target latency must be positive");
+		this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatency);
+	}
+	
+	/**
+	 * Records a received block.
+	 * 
+	 * @param requested
+	 * 		the requested block size
+	 * @param received
+	 * 		the received byte count
+	 * @param last
+	 * 		{@code true} if the block ends at the end of the range to read, e.g. at the end of the file
+	 * @param transferNanos
+	 * 		the time spent receiving the block, excluding the time in which no request was pending
+	 * @param latencyNanos
+	 * 		the time between sending the request and receiving the reply
+	 */
+	public synchronized void blockReceived(int requested, int received, boolean last, long transferNanos, long latencyNanos) {
+		if (received == requested) {
+			this.confirmedBlockSize = Math.max(this.confirmedBlockSize, received);
+		} else if (received > 0 && requested > this.confirmedBlockSize && !last) {
+			// the backend does not return larger blocks
+			this.setMaxBlockSize(received);
+		}
+		
+		this.sampleCount++;
+		this.sampleBytes += received;
+		this.sampleNanos += transferNanos;
+		this.sampleLatencyNanos += latencyNanos;
+		if (this.sampleCount < SAMPLE_BLOCKS) return;
+		
+		final double throughput = this.sampleNanos <= 0 ? 0 : this.sampleBytes * 1e9 / this.sampleNanos;
+		final long averageLatency = this.sampleLatencyNanos / this.sampleCount;
+		this.sampleCount = 0;
+		this.sampleBytes = 0;
+		this.sampleNanos = 0;
+		this.sampleLatencyNanos = 0;
+		
+		if (averageLatency > this.targetLatencyNanos) {
+			// the replies take too long
+			this.growing = false;
+			this.blockSize = this.clamp(this.blockSize / 2);
+		} else if (this.lastThroughput < 0 || throughput > this.lastThroughput * (1 + THRESHOLD)) {
+			// the last change has improved the throughput
+			this.blockSize = this.clamp(this.growing ? this.blockSize * 2 : this.blockSize / 2);
+		} else if (throughput < this.lastThroughput * (1 - THRESHOLD)) {
+			// the last change has reduced the throughput
+			this.growing = !this.growing;
+			this.blockSize = this.clamp(this.growing ? this.blockSize * 2 : this.blockSize / 2);
+		}
+		this.lastThroughput = throughput;
+	}
+	
+	private int clamp(int size) {
+		return Math.max(MIN_BLOCK_SIZE, Math.min(this.maxBlockSize, size));
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return String.format("%d bytes (max %d bytes)", Integer.valueOf(this.blockSize), Integer.valueOf(this.maxBlockSize));
+	}
+}
@@ -36,15 +36,21 @@ import static org.jmythapi.protocol.response.IFileTransfer.Props.SOCKET_ID;
 import static org.jmythapi.protocol.response.IFileTransfer.Props.STATUS;
 import static org.jmythapi.protocol.utils.ResponseUtils.STATUS_OK;
 
-import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 
 import org.jmythapi.protocol.IBackendConnection;
 import org.jmythapi.protocol.IMythPacket;
@@ -53,10 +59,13 @@ import org.jmythapi.protocol.impl.Backend;
 import org.jmythapi.protocol.request.AMythCommand;
 import org.jmythapi.protocol.request.AMythRequest;
 import org.jmythapi.protocol.request.IMythCommand;
+import org.jmythapi.protocol.request.RequestTemplate;
+import org.jmythapi.protocol.response.ETransferPriority;
 import org.jmythapi.protocol.response.IFileStatus;
 import org.jmythapi.protocol.response.IFileTransfer;
 import org.jmythapi.protocol.response.IProgramInfo;
 import org.jmythapi.protocol.response.IStorageGroupFile;
+import org.jmythapi.protocol.response.ITransferProgressListener;
 import org.jmythapi.protocol.utils.ResponseUtils;
 import org.jmythapi.utils.EncodingUtils;
 
@@ -65,6 +74,17 @@ import org.jmythapi.utils.EncodingUtils;
  */
 public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements Closeable, IFileTransfer {
 	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+	
+	/**
+	 * The default amount of block requests sent in advance by {@link #readBlockPipelined(byte[], int, long)}.
+	 */
+	public static final int DEFAULT_PIPELINE_WINDOW = 4;
+	
+	/**
+	 * The maximum time in milliseconds to wait for data before checking if the backend has sent
+	 * a block response.
+	 */
+	private static final int DATA_POLL_INTERVAL = 100;
 
 	private IProgramInfo programInfo;
 	private String fileName;
@@ -73,11 +93,71 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	private final IBackendConnection dataConnection;
 	private final IBackendConnection commandConnection;
 	private boolean done = false;
+	
+	/**
+	 * The pre-encoded {@link IMythCommand#QUERY_FILETRANSFER_REQUEST_BLOCK} request.
+	 */
+	private RequestTemplate requestBlockTemplate;
+	
+	/**
+	 * The maximum amount of block requests in flight.
+	 */
+	private int pipelineWindow = DEFAULT_PIPELINE_WINDOW;
+	
+	/**
+	 * A requested but not yet read block.
+	 */
+	private static final class PendingBlock {
+		final int size;
+		
+		/**
+		 * The time in nanoseconds at which the block was requested.
+		 */
+		final long requestTime;
+		
+		/**
+		 * {@code true} if the block ends at the end of the range to read, e.g. at the end of the file.
+		 */
+		final boolean last;
+		
+		PendingBlock(int size, long requestTime, boolean last) {
+			this.size = size;
+			this.requestTime = requestTime;
+			this.last = last;
+		}
+	}
+	
+	/**
+	 * All requested but not yet read blocks, in request order.
+	 */
+	private final ArrayDeque<PendingBlock> pendingBlocks = new ArrayDeque<PendingBlock>();
+	
+	/**
+	 * The controller for the block size or {@code null} if a fixed block size is used.
+	 */
+	private AdaptiveBlockSize adaptiveBlockSize;
+	
+	/**
+	 * The time in nanoseconds at which the last pipelined block was received.
+	 */
+	private long lastBlockTime;
+	
+	/**
+	 * The scheduler to acquire the bandwidth from or {@code null}.
+	 */
+	private TransferScheduler transferScheduler = TransferScheduler.getDefault();
+	private ETransferPriority transferPriority = ETransferPriority.NORMAL;
+	
+	/**
+	 * The scheduling state of this transfer, created on the first request.
+	 */
+	private TransferScheduler.Flow transferFlow;
 
 	public FileTransfer(IBackendConnection commandConnection, final IBackendConnection dataConnection, IMythPacket packet) {
 		super(IFileTransfer.Props.class, packet);
 		this.dataConnection = dataConnection;
 		this.commandConnection = commandConnection;
+		this.setAdaptiveBlockSize(true);
 	}
 
 	@Override
@@ -187,31 +267,51 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	 * </i>
 	 */
 	public int readBlock(byte[] buffer, int requestedSize) throws IOException {
-		int readLength = 0;
-
+		this.cancelPendingBlocks();
+		
 		// send the request to the backend
 		this.sendRequestBlockRequest(requestedSize);
-
-		// start reading data until the response message is available
-		boolean responseAvailable = this.commandConnection.canReadPacket();
-		while (readLength < requestedSize && !responseAvailable) {
-			// read the next chunk
-			final int readCount = readData(buffer, readLength, requestedSize, false);
-			if (readCount > 0) {
+		
+		// read the data and the response
+		return this.readRequestedBlock(buffer, requestedSize);
+	}
+	
+	/**
+	 * Reads the data of the oldest requested block and the response to its request.
+	 */
+	private int readRequestedBlock(byte[] buffer, int requestedSize) throws IOException {
+		int readLength = 0;
+		
+		/*
+		 * Read data until the whole block was received. If no data arrives within the poll interval,
+		 * the backend may have sent less data than requested. In this case the response is already available.
+		 * The thread is blocked while waiting for data, therefore no CPU time is consumed.
+		 */
+		final int readTimeout = this.dataConnection.getReadTimeout();
+		final long stallTimeout = readTimeout <= 0 ? 0 : Math.max(DATA_POLL_INTERVAL, readTimeout);
+		long lastDataTime = System.currentTimeMillis();
+		while (readLength < requestedSize) {
+			final int readCount = this.dataConnection.readData(buffer, readLength, requestedSize - readLength, DATA_POLL_INTERVAL);
+			if (readCount == -1) {
+				throw new EOFException("Unable to read the whole data block");
+			} else if (readCount > 0) {
 				readLength += readCount;
-			} else {
-				// sleep some time
-//				try {
-//					Thread.sleep(1);
-//				} catch (InterruptedException e) {
-//					final IOException ioe = new IOException("Interruption while reading data");
-//					ioe.initCause(e);
-//					throw ioe;
-//				}
+				lastDataTime = System.currentTimeMillis();
+				continue;
 			}
-
+			
 			// check if the response is available
-			responseAvailable = this.commandConnection.canReadPacket();
+			if (this.commandConnection.canReadPacket()) break;
+			
+			// a read timeout of 0 means to wait forever
+			if (stallTimeout > 0 && System.currentTimeMillis() - lastDataTime > stallTimeout) {
+				throw new SocketTimeoutException(String.format(
+					"No data received within %d ms. %d of %d bytes read.",
+					Long.valueOf(stallTimeout),
+					Integer.valueOf(readLength),
+					Integer.valueOf(requestedSize)
+				));
+			}
 		}
 
 		// reading response
@@ -228,8 +328,169 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 
 		return readLength;
 	}
+	
+	public ETransferPriority getTransferPriority() {
+		return this.transferPriority;
+	}
+	
+	public void setTransferPriority(ETransferPriority priority) {
+		if (priority == null) throw new NullPointerException("The priority must not be null");
+		this.transferPriority = priority;
+		this.transferFlow = null;
+	}
+	
+	/**
+	 * Gets the scheduler, from which the bandwidth for each requested block is acquired.
+	 * 
+	 * @return
+	 * 		the scheduler or {@code null}. By default the {@link TransferScheduler#getDefault() default scheduler} is used.
+	 */
+	public TransferScheduler getTransferScheduler() {
+		return this.transferScheduler;
+	}
+	
+	/**
+	 * Sets the scheduler, from which the bandwidth for each requested block is acquired.
+	 * <p>
+	 * Each block request, e.g. by {@link #readBlock(byte[], int)} or {@link #transferTo(WritableByteChannel) transferTo}, 
+	 * waits until the scheduler grants the requested amount of bytes.
+	 * 
+	 * @param scheduler
+	 * 		the scheduler or {@code null} to request blocks without any limit
+	 */
+	public void setTransferScheduler(TransferScheduler scheduler) {
+		this.transferScheduler = scheduler;
+		this.transferFlow = null;
+	}
+	
+	public int getPipelineWindow() {
+		return this.pipelineWindow;
+	}
+	
+	public void setPipelineWindow(int window) {
+		if (window < 1) throw new IllegalArgumentException("The window must be at least 1");
+		this.pipelineWindow = window;
+	}
+	
+	public boolean isAdaptiveBlockSize() {
+		return this.adaptiveBlockSize != null;
+	}
+	
+	public void setAdaptiveBlockSize(boolean adaptive) {
+		if (!adaptive) {
+			this.adaptiveBlockSize = null;
+		} else if (this.adaptiveBlockSize == null) {
+			this.adaptiveBlockSize = new AdaptiveBlockSize(DEFAULT_BUFFER_SIZE);
+			
+			// the replies must arrive well before the read timeout
+			final int readTimeout = this.dataConnection == null ? 0 : this.dataConnection.getReadTimeout();
+			if (readTimeout > 0) {
+				this.adaptiveBlockSize.setTargetLatency(Math.max(DATA_POLL_INTERVAL, readTimeout / 4));
+			}
+		}
+	}
+	
+	public int getBlockSize() {
+		final AdaptiveBlockSize adaptive = this.adaptiveBlockSize;
+		return adaptive == null ? DEFAULT_BUFFER_SIZE : adaptive.getBlockSize();
+	}
+	
+	/**
+	 * Gets the size of the buffers required to read blocks of the {@link #getBlockSize() current block size}.
+	 */
+	private int getMaxBlockSize() {
+		final AdaptiveBlockSize adaptive = this.adaptiveBlockSize;
+		return adaptive == null ? DEFAULT_BUFFER_SIZE : adaptive.getMaxBlockSize();
+	}
+	
+	public int readBlockPipelined(byte[] buffer, int blockSize, long remaining) throws IOException {
+		if (blockSize < 1) throw new IllegalArgumentException("The block size must be at least 1");
+		else if (buffer.length < blockSize) throw new IllegalArgumentException("The buffer is smaller than the block size");
+		
+		// determine the amount of bytes already requested
+		long requested = 0;
+		for (PendingBlock pending : this.pendingBlocks) {
+			requested += pending.size;
+		}
+		
+		// fill the request window
+		final AdaptiveBlockSize adaptive = this.adaptiveBlockSize;
+		while (this.pendingBlocks.size() < this.pipelineWindow && requested < remaining) {
+			final int size = (int) Math.min(blockSize, remaining - requested);
+			
+			// the backend may return less data than requested for a block larger than all previous blocks,
+			// therefore such a block is only requested while no other block is pending
+			if (adaptive != null && size > adaptive.getConfirmedBlockSize() && !this.pendingBlocks.isEmpty()) {
+				break;
+			}
+			
+			this.sendRequestBlockRequest(size);
+			requested += size;
+			this.pendingBlocks.addLast(new PendingBlock(size, System.nanoTime(), requested >= remaining));
+		}
+		if (this.pendingBlocks.isEmpty()) return -1;
+		
+		// read the oldest block
+		final PendingBlock block = this.pendingBlocks.peekFirst();
+		final int size = block.size;
+		if (buffer.length < size) throw new IllegalArgumentException("The buffer is smaller than the pending block");
+		this.pendingBlocks.removeFirst();
+		
+		final int readLength;
+		try {
+			readLength = this.readRequestedBlock(buffer, size);
+		} catch (IOException e) {
+			// the data of the following blocks can not be assigned anymore
+			this.pendingBlocks.clear();
+			throw e;
+		}
+		
+		if (adaptive != null) {
+			// the time before the block was requested is not counted as transfer time
+			final long now = System.nanoTime();
+			adaptive.blockReceived(
+				size, readLength, block.last,
+				now - Math.max(block.requestTime, this.lastBlockTime), 
+				now - block.requestTime
+			);
+			this.lastBlockTime = now;
+		}
+		
+		if (readLength != size && !this.pendingBlocks.isEmpty()) {
+			// the data of the next block was already sent
+			this.pendingBlocks.clear();
+			throw new IOException(String.format(
+				"%d bytes requested but only %d bytes returned. Unable to continue pipelined transfer.",
+				Integer.valueOf(size), 
+				Integer.valueOf(readLength)
+			));
+		}
+		return readLength;
+	}
+	
+	public void cancelPendingBlocks() throws IOException {
+		if (this.pendingBlocks.isEmpty()) return;
+		
+		int maxSize = 0;
+		for (PendingBlock pending : this.pendingBlocks) {
+			maxSize = Math.max(maxSize, pending.size);
+		}
+		
+		// the requested data must be consumed before any other command is sent
+		final byte[] discard = new byte[maxSize];
+		try {
+			while (!this.pendingBlocks.isEmpty()) {
+				this.readRequestedBlock(discard, this.pendingBlocks.peekFirst().size);
+				this.pendingBlocks.removeFirst();
+			}
+		} finally {
+			this.pendingBlocks.clear();
+		}
+	}
 
 	public int requestBlock(int requestedLength) throws IOException {
+		this.cancelPendingBlocks();
+		
 		// send the request to the backend
 		this.sendRequestBlockRequest(requestedLength);
 
@@ -239,16 +500,30 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	}
 
 	private void sendRequestBlockRequest(int requestedLength) throws IOException {
+		// wait for the bandwidth
+		final TransferScheduler scheduler = this.transferScheduler;
+		if (scheduler != null) {
+			if (this.transferFlow == null) {
+				this.transferFlow = scheduler.createFlow(this.transferPriority);
+			}
+			scheduler.acquire(this.transferFlow, requestedLength);
+		}
+		
+		// this request is sent for each block, therefore it is encoded only once
+		if (this.requestBlockTemplate == null) {
+			this.requestBlockTemplate = new RequestTemplate(
+				new AMythCommand(
+					this.commandConnection.getVersionNr(),
+					QUERY_FILETRANSFER, 
+					Integer.toString(this.getSocketID())
+				),
+				QUERY_FILETRANSFER_REQUEST_BLOCK, 
+				RequestTemplate.VALUE
+			);
+		}
+		
 		// write command message
-		this.commandConnection.writeMessage(new AMythRequest(
-			new AMythCommand(
-				this.commandConnection.getVersionNr(),
-				QUERY_FILETRANSFER, 
-				Integer.toString(this.getSocketID())
-			),
-			QUERY_FILETRANSFER_REQUEST_BLOCK, 
-			Integer.toString(requestedLength))
-		);
+		this.commandConnection.writeTemplate(this.requestBlockTemplate, requestedLength);
 	}
 
 	private int readRequestBlockResponse() throws IOException {
@@ -293,6 +568,7 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	@SuppressWarnings("deprecation")
 	public long seek(long currentPos, long newPos, IFileTransfer.Seek whence) throws IOException {
 		if(whence == null) whence = Seek.ABSOLUTE;
+		this.cancelPendingBlocks();
 
 		// write command message
 		if (this.protoVersion.compareTo(PROTO_VERSION_66) < 0) {
@@ -341,6 +617,7 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 
 	public boolean isOpen() throws IOException {
 		if (this.done) return false;
+		this.cancelPendingBlocks();
 
 		// write command message
 		this.commandConnection.writeMessage(new AMythRequest(
@@ -359,6 +636,8 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 
 	@MythProtoVersionAnnotation(from = PROTO_VERSION_28)
 	public boolean setTimeout(boolean fast) throws IOException {
+		this.cancelPendingBlocks();
+		
 		// write command message
 		this.commandConnection.writeMessage(new AMythRequest(
 			new AMythCommand(
@@ -376,6 +655,8 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	}
 
 	public boolean done() throws IOException {
+		this.cancelPendingBlocks();
+		
 		// write command message
 		this.commandConnection.writeMessage(new AMythRequest(
 			new AMythCommand(
@@ -397,6 +678,8 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	}
 
 	public boolean reopen(String fileName) throws IOException {
+		this.cancelPendingBlocks();
+		
 		// write command message
 		this.commandConnection.writeMessage(new AMythRequest(
 			new AMythCommand(
@@ -424,24 +707,71 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	}
 
 	public void transferTo(File target) throws IOException {
-		BufferedOutputStream fileOut = null;
+		this.transferTo(target.toPath(), null);
+	}
+	
+	public void transferTo(Path target) throws IOException {
+		this.transferTo(target, null);
+	}
+	
+	public void transferTo(Path target, ITransferProgressListener listener) throws IOException {
+		FileChannel fileChannel = null;
 		try {
-			// create a new ouptut stream
-			fileOut = new BufferedOutputStream(new FileOutputStream(target), DEFAULT_BUFFER_SIZE);
+			// create or truncate the target file
+			fileChannel = FileChannel.open(
+				target, 
+				StandardOpenOption.CREATE, 
+				StandardOpenOption.TRUNCATE_EXISTING, 
+				StandardOpenOption.WRITE
+			);
 			
 			// copy data
-			this.transferTo(fileOut);
+			this.transferTo(fileChannel, listener);
 		} finally {
 			// close this file transfer
 			this.close();
 
-			// close the file output stream
-			if (fileOut != null)
-				fileOut.close();
+			// close the file channel
+			if (fileChannel != null)
+				fileChannel.close();
 		}
 	}
 	
-	public void transferTo(OutputStream fileOut) throws IOException {
+	public void transferTo(final OutputStream fileOut) throws IOException {
+		this.transferTo(new IBlockWriter() {
+			public void write(byte[] buffer, int length) throws IOException {
+				fileOut.write(buffer, 0, length);
+			}
+		}, null);
+		
+		// flush the data only once
+		fileOut.flush();
+	}
+	
+	public void transferTo(WritableByteChannel target) throws IOException {
+		this.transferTo(target, null);
+	}
+	
+	public void transferTo(final WritableByteChannel target, ITransferProgressListener listener) throws IOException {
+		this.transferTo(new IBlockWriter() {
+			public void write(byte[] buffer, int length) throws IOException {
+				// no intermediate BufferedOutputStream copy and no flush per block
+				final ByteBuffer data = ByteBuffer.wrap(buffer, 0, length);
+				while (data.hasRemaining()) {
+					target.write(data);
+				}
+			}
+		}, listener);
+	}
+	
+	/**
+	 * Writes a received block into the transfer target.
+	 */
+	private static interface IBlockWriter {
+		public void write(byte[] buffer, int length) throws IOException;
+	}
+	
+	private void transferTo(IBlockWriter target, ITransferProgressListener listener) throws IOException {
 		try {
 			// check if the remote file was opened properly
 			if (!this.isOpen()) {
@@ -453,22 +783,22 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 
 			// reading data
 			long currentPosition = 0;
-			final byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+			final byte[] buffer = new byte[this.getMaxBlockSize()];
 			while (currentPosition < fileSize) {
 				// reading the next block
-				final int chunkSize = (int) Math.min(buffer.length, fileSize - currentPosition);
-				final int read = this.readBlock(buffer, chunkSize);
+				final int blockSize = Math.min(buffer.length, this.getBlockSize());
+				final int read = this.readBlockPipelined(buffer, blockSize, fileSize - currentPosition);
 				if (read == -1) {
 					// TODO: some logging
 					break;
 				}
 
-				// writing the block into the file
-				fileOut.write(buffer, 0, read);
-				fileOut.flush();
+				// writing the block into the target
+				target.write(buffer, read);
 
 				// update counter
 				currentPosition += read;
+				if (listener != null) listener.transferProgress(currentPosition, fileSize);
 			}
 		} finally {
 			// close this file transfer
@@ -477,7 +807,7 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 	}
 
 	public InputStream getInputStream() throws IOException {
-		return this.getInputStream(DEFAULT_BUFFER_SIZE);
+		return this.getInputStream(this.getMaxBlockSize());
 	}
 
 	public InputStream getInputStream(int bufferSize) throws IOException {
@@ -488,19 +818,43 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 
 		return new FileTransferInputStream(bufferSize);
 	}
+	
+	public SeekableByteChannel getChannel() throws IOException {
+		return this.getChannel(FileTransferChannel.DEFAULT_BLOCK_SIZE, FileTransferChannel.DEFAULT_CACHE_SIZE);
+	}
+	
+	public SeekableByteChannel getChannel(int blockSize, int cacheSize) throws IOException {
+		// check if the remote file was openend properly
+		if (!this.isOpen()) {
+			throw new IOException("Remote file can not be opened");
+		}
+		
+		return new FileTransferChannel(this, blockSize, cacheSize);
+	}
 
 	/**
 	 * A stream that automatically uses
-	 * {@link FileTransfer#requestBlock(byte[], int)} and
+	 * {@link FileTransfer#readBlockPipelined(byte[], int, long)} and
 	 * {@link FileTransfer#seek(long, long, Seek)}
-	 * 
+	 * <p>
+	 * Skipping and resetting the stream is done by seeking within the remote file, therefore
+	 * {@link #mark(int) marks} never become invalid.
 	 */
 	private class FileTransferInputStream extends InputStream {
 		private int currentPosition = 0;
 		private int maxPosition = 0;
+		
+		/**
+		 * The position of the next byte to return within the remote file.
+		 */
 		private long totalReads = 0;
 		private long fileSize = FileTransfer.this.getFileSize();
 		private byte[] buffer;
+		
+		/**
+		 * The marked position within the remote file or {@code -1}.
+		 */
+		private long markPosition = -1;
 
 		private FileTransferInputStream() {
 			this(DEFAULT_BUFFER_SIZE);
@@ -511,8 +865,8 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 		}
 
 		private int fill() throws IOException {
-			final long blockSize = Math.min(fileSize-totalReads,(long)buffer.length);
-			final int readSize = FileTransfer.this.readBlock(buffer,(int)blockSize);
+			final int blockSize = Math.min(buffer.length, FileTransfer.this.getBlockSize());
+			final int readSize = FileTransfer.this.readBlockPipelined(buffer,blockSize,fileSize-totalReads);
 			if (readSize == -1) {
 				throw new EOFException();
 			} 
@@ -521,11 +875,16 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 			this.currentPosition = 0;
 			return readSize;
 		}
-
-		@Override
-		public int read() throws IOException {
-			if (fileSize - totalReads == 0) {
-				return -1;
+		
+		/**
+		 * Fills the buffer if it is empty.
+		 * 
+		 * @return
+		 * 		{@code false} if the end of the file was reached
+		 */
+		private boolean ensureBuffered() throws IOException {
+			if (fileSize - totalReads <= 0) {
+				return false;
 			} else if (maxPosition - currentPosition <= 0) {
 				// refill buffer
 				int readAmount = 0;
@@ -533,12 +892,95 @@ public class FileTransfer extends AMythResponse<IFileTransfer.Props> implements
 					readAmount = this.fill();
 				} while (readAmount == 0);				
 			}
+			return true;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (!this.ensureBuffered()) return -1;
 
 			final int readData = buffer[currentPosition];
 			currentPosition++;
 			totalReads++;
 			return readData & 0xFF;
-
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (b == null) throw new NullPointerException();
+			else if (off < 0 || len < 0 || len > b.length - off) throw new IndexOutOfBoundsException();
+			else if (len == 0) return 0;
+			
+			if (!this.ensureBuffered()) return -1;
+			
+			final int count = Math.min(len, maxPosition - currentPosition);
+			System.arraycopy(buffer, currentPosition, b, off, count);
+			currentPosition += count;
+			totalReads += count;
+			return count;
+		}
+		
+		@Override
+		public int available() throws IOException {
+			return maxPosition - currentPosition;
+		}
+		
+		@Override
+		public long skip(long n) throws IOException {
+			if (n <= 0) return 0;
+			
+			final long skipCount = Math.min(n, fileSize - totalReads);
+			if (skipCount <= maxPosition - currentPosition) {
+				// skip within the buffer
+				currentPosition += (int) skipCount;
+				totalReads += skipCount;
+				return skipCount;
+			}
+			
+			final long oldPosition = totalReads;
+			this.seekTo(totalReads + skipCount);
+			return totalReads - oldPosition;
+		}
+		
+		@Override
+		public boolean markSupported() {
+			return true;
+		}
+		
+		@Override
+		public synchronized void mark(int readlimit) {
+			this.markPosition = totalReads;
+		}
+		
+		@Override
+		public synchronized void reset() throws IOException {
+			if (this.markPosition == -1) throw new IOException("Resetting to invalid mark");
+			
+			final long distance = totalReads - this.markPosition;
+			if (distance >= 0 && distance <= currentPosition) {
+				// the marked position is still buffered
+				currentPosition -= (int) distance;
+				totalReads = this.markPosition;
+			} else {
+				this.seekTo(this.markPosition);
+			}
+		}
+		
+		/**
+		 * Seeks to the given position within the remote file and discards the buffer.
+		 */
+		private void seekTo(long newPosition) throws IOException {
+			final long position = FileTransfer.this.seek(totalReads, newPosition, Seek.ABSOLUTE);
+			if (position < 0) {
+				throw new IOException(String.format(
+					"Unable to seek to position %d", 
+					Long.valueOf(newPosition)
+				));
+			}
+			
+			this.maxPosition = 0;
+			this.currentPosition = 0;
+			this.totalReads = position;
 		}
 
 		@Override
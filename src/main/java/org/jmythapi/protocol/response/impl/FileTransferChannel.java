@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jmythapi.protocol.response.IFileTransfer;
+import org.jmythapi.protocol.response.ITransferable.Seek;
+
+/**
+ * A read-only {@link SeekableByteChannel} to randomly access the data of a {@link IFileTransfer file transfer}.
+ * <p>
+ * The remote file is read in aligned blocks, which are kept in a least-recently-used cache. Repeated
+ * reads of the same region, e.g. of a file header or an index, are therefore answered without any
+ * request to the backend.
+ * <p>
+ * Missing blocks are fetched using {@link IFileTransfer#readBlockPipelined(byte[], int, long)}. A seek is only 
+ * sent to the backend if the block does not start at the current position of the file transfer.
+ * If consecutive blocks are read, the access is treated as sequential and the following blocks are requested 
+ * in advance, up to the {@link IFileTransfer#getPipelineWindow() pipeline window}. Otherwise only the 
+ * requested block is fetched.
+ * <p>
+ * Closing the channel closes the file transfer.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    IFileTransfer transfer = backend.annotateFileTransfer(recording);
+ *    SeekableByteChannel channel = transfer.getChannel();
+ *    
+ *    // read the last kilobyte of the file
+ *    ByteBuffer trailer = ByteBuffer.allocate(1024);
+ *    channel.position(channel.size() - trailer.capacity());
+ *    while (trailer.hasRemaining() &amp;&amp; channel.read(trailer) != -1);
+ *    
+ *    channel.close();
+ * </pre>}
+ * 
+ * @see IFileTransfer#getChannel(int, int)
+ */
+public class FileTransferChannel implements SeekableByteChannel {
+	/**
+	 * The default size of the cached blocks.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = FileTransfer.DEFAULT_BUFFER_SIZE;
+	
+	/**
+	 * The default amount of cached blocks.
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 64;
+	
+	private final IFileTransfer transfer;
+	private final long fileSize;
+	private final int blockSize;
+	
+	/**
+	 * The cached blocks by block index, in access order.
+	 */
+	private final LinkedHashMap<Long, byte[]> cache;
+	
+	/**
+	 * The buffer to receive blocks from the backend.
+	 */
+	private final byte[] receiveBuffer;
+	
+	/**
+	 * The position of the next byte to return by {@link #read(ByteBuffer)}.
+	 */
+	private long position = 0;
+	
+	/**
+	 * The position of the file transfer within the remote file.
+	 */
+	private long transferPosition = 0;
+	
+	/**
+	 * The index of the last block fetched from the backend.
+	 */
+	private long lastFetchedBlock = -1;
+	
+	private boolean open = true;
+	
+	/**
+	 * Creates a channel using the {@link #DEFAULT_BLOCK_SIZE default block size} and {@link #DEFAULT_CACHE_SIZE cache size}.
+	 * 
+	 * @param transfer
+	 * 		the file transfer to read. This must be positioned at the start of the file.
+	 */
+	public FileTransferChannel(IFileTransfer transfer) {
+		this(transfer, DEFAULT_BLOCK_SIZE, DEFAULT_CACHE_SIZE);
+	}
+	
+	/**
+	 * Creates a channel.
+	 * 
+	 * @param transfer
+	 * 		the file transfer to read. This must be positioned at the start of the file.
+	 * @param blockSize
+	 * 		the size of the blocks to fetch and cache
+	 * @param cacheSize
+	 * 		the maximum amount of cached blocks
+	 */
+	public FileTransferChannel(IFileTransfer transfer, int blockSize, final int cacheSize) {
+		if (transfer == null) throw new NullPointerException("The file transfer must not be null");
+		if (blockSize < 1) throw new IllegalArgumentException("The block size must be at least 1");
+		if (cacheSize < 1) throw new IllegalArgumentException("The cache size must be at least 1");
+		
+		this.transfer = transfer;
+		this.fileSize = transfer.getFileSize();
+		this.blockSize = blockSize;
+		this.receiveBuffer = new byte[blockSize];
+		this.cache = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+				return this.size() > cacheSize;
+			}
+		};
+	}
+	
+	public synchronized int read(ByteBuffer dst) throws IOException {
+		this.ensureOpen();
+		if (this.position >= this.fileSize) return -1;
+		
+		int count = 0;
+		while (dst.hasRemaining() && this.position < this.fileSize) {
+			final long blockIdx = this.position / this.blockSize;
+			final byte[] block = this.getBlock(blockIdx);
+			
+			final int blockOffset = (int) (this.position - blockIdx * this.blockSize);
+			final int length = Math.min(dst.remaining(), block.length - blockOffset);
+			dst.put(block, blockOffset, length);
+			
+			this.position += length;
+			count += length;
+		}
+		return count;
+	}
+	
+	public int write(ByteBuffer src) throws IOException {
+		throw new NonWritableChannelException();
+	}
+	
+	public synchronized long position() throws IOException {
+		this.ensureOpen();
+		return this.position;
+	}
+	
+	public synchronized SeekableByteChannel position(long newPosition) throws IOException {
+		if (newPosition < 0) throw new IllegalArgumentException("The position must not be negative");
+		this.ensureOpen();
+		this.position = newPosition;
+		return this;
+	}
+	
+	public long size() throws IOException {
+		this.ensureOpen();
+		return this.fileSize;
+	}
+	
+	public SeekableByteChannel truncate(long size) throws IOException {
+		throw new NonWritableChannelException();
+	}
+	
+	public synchronized boolean isOpen() {
+		return this.open;
+	}
+	
+	public synchronized void close() throws IOException {
+		if (!this.open) return;
+		this.open = false;
+		this.cache.clear();
+		this.transfer.close();
+	}
+	
+	/**
+	 * Gets the amount of currently cached blocks.
+	 * 
+	 * @return
+	 * 		the cached block count
+	 */
+	public synchronized int getCachedBlockCount() {
+		return this.cache.size();
+	}
+	
+	private void ensureOpen() throws IOException {
+		if (!this.open) throw new ClosedChannelException();
+	}
+	
+	/**
+	 * Gets a block from the cache or fetches it from the backend.
+	 */
+	private byte[] getBlock(long blockIdx) throws IOException {
+		final Long key = Long.valueOf(blockIdx);
+		byte[] block = this.cache.get(key);
+		if (block == null) {
+			block = this.fetchBlock(blockIdx);
+			this.cache.put(key, block);
+		}
+		return block;
+	}
+	
+	private byte[] fetchBlock(long blockIdx) throws IOException {
+		final long blockStart = blockIdx * this.blockSize;
+		final int blockLength = (int) Math.min(this.blockSize, this.fileSize - blockStart);
+		
+		if (this.transferPosition != blockStart) {
+			// this discards all blocks requested in advance
+			final long newPosition = this.transfer.seek(this.transferPosition, blockStart, Seek.ABSOLUTE);
+			if (newPosition != blockStart) {
+				this.transferPosition = -1;
+				throw new IOException(String.format(
+					"Unable to seek to position %d, the position is %d",
+					Long.valueOf(blockStart),
+					Long.valueOf(newPosition)
+				));
+			}
+			this.transferPosition = blockStart;
+		}
+		
+		// request the following blocks in advance if the blocks are read sequentially
+		final boolean sequential = this.lastFetchedBlock >= 0 && blockIdx == this.lastFetchedBlock + 1;
+		final long readAheadEnd = sequential ? this.fileSize : blockStart + blockLength;
+		this.lastFetchedBlock = blockIdx;
+		
+		final byte[] block = new byte[blockLength];
+		int filled = 0;
+		while (filled < blockLength) {
+			final int read;
+			try {
+				read = this.transfer.readBlockPipelined(this.receiveBuffer, this.blockSize, readAheadEnd - this.transferPosition);
+			} catch (IOException e) {
+				// the position of the file transfer is unknown
+				this.transferPosition = -1;
+				this.lastFetchedBlock = -1;
+				throw e;
+			}
+			
+			if (read <= 0) {
+				this.transferPosition = -1;
+				throw new IOException(String.format(
+					"No data returned at position %d",
+					Long.valueOf(blockStart + filled)
+				));
+			}
+			
+			final int length = Math.min(read, blockLength - filled);
+			System.arraycopy(this.receiveBuffer, 0, block, filled, length);
+			filled += length;
+			this.transferPosition += read;
+		}
+		return block;
+	}
+}
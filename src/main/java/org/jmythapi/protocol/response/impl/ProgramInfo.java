@@ -35,6 +35,28 @@ import org.jmythapi.utils.EncodingUtils;
 import org.jmythapi.utils.GenericEnumUtils;
 
 public class ProgramInfo extends AProgramInfo<IProgramInfo.Props> implements IBasicChannelInfo, IBasicInputInfo, IProgramInfo {
+	/**
+	 * The unique recording id and key, calculated for a given state of the property values.
+	 */
+	private static final class RecordingIdentity {
+		final int modCount;
+		final String id;
+		final long key;
+		
+		RecordingIdentity(int modCount, String id, long key) {
+			this.modCount = modCount;
+			this.id = id;
+			this.key = key;
+		}
+	}
+	
+	/**
+	 * The cached recording identity.
+	 * @see #getUniqueRecordingId()
+	 * @see #getUniqueRecordingKey()
+	 */
+	private volatile RecordingIdentity recordingIdentity;
+	
 	
 	/**
 	 * Constructs a program-info object from a MythTv-protocol packet.
@@ -70,13 +92,40 @@ public class ProgramInfo extends AProgramInfo<IProgramInfo.Props> implements IBa
 	}
 	
 	public String getUniqueRecordingId() {
-		if(!isValid()) return null;
+		return this.getRecordingIdentity().id;
+	}
+	
+	public long getUniqueRecordingKey() {
+		return this.getRecordingIdentity().key;
+	}
+	
+	/**
+	 * Gets the cached recording identity, or calculates it if the 
+	 * property values were changed in the meantime.
+	 * 
+	 * @return
+	 * 		the recording identity
+	 */
+	private RecordingIdentity getRecordingIdentity() {
+		final int modCount = this.getPropertyValuesModCount();
+		
+		RecordingIdentity identity = this.recordingIdentity;
+		if(identity != null && modCount != -1 && identity.modCount == modCount) return identity;
+		
+		if(!isValid()) {
+			identity = new RecordingIdentity(modCount, null, -1);
+		} else {
+			final Integer channelId = this.getChannelID();
+			final Date recStartTime = this.getRecordingStartTime();
+			identity = new RecordingIdentity(
+				modCount,
+				EncodingUtils.generateId(channelId, recStartTime),
+				EncodingUtils.generateKey(channelId, recStartTime)
+			);
+		}
 		
-		return String.format(
-			"%d_%2$tY%2$tm%2$td%2$tH%2$tM%2$tS",
-			this.getChannelID(),
-			this.getRecordingStartTime()
-		);
+		this.recordingIdentity = identity;
+		return identity;
 	}	
 	
 	/* ======================================================================
@@ -0,0 +1,967 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import static org.jmythapi.protocol.ProtocolVersion.PROTO_VERSION_57;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.CATEGORY;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.CHANNEL_ID;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.CHANNEL_NUMBER;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.END_DATE_TIME;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.FILESIZE;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.REC_END_TIME;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.REC_GROUP;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.REC_START_TIME;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.START_DATE_TIME;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.STORAGE_GROUP;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.TITLE;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.jmythapi.IVersionable;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.impl.comparators.ProgramInfoComparator;
+import org.jmythapi.protocol.utils.EnumUtils;
+import org.jmythapi.utils.EncodingUtils;
+import org.jmythapi.utils.ParallelUtils;
+
+/**
+ * A column oriented view of a {@link ProgramInfoList}.
+ * <p>
+ * A program-info list stores all properties of all programs in a single flat argument list.
+ * Reading a single property of all programs therefore requires to create a {@link ProgramInfo}
+ * object per program and to decode the property string each time.
+ * <p>
+ * This class stores the values of each {@link IProgramInfo.Props property} in a separate column:
+ * <ul>
+ * 	<li>{@link Integer} properties, e.g. {@link IProgramInfo.Props#CHANNEL_ID CHANNEL_ID}, are stored as {@code int[]}.</li>
+ * 	<li>{@link Long} properties, e.g. {@link IProgramInfo.Props#FILESIZE FILESIZE}, are stored as {@code long[]}.</li>
+ * 	<li>{@link Date} properties, e.g. {@link IProgramInfo.Props#START_DATE_TIME START_DATE_TIME}, are stored as
+ *      {@code long[]} containing the seconds since the epoch.</li>
+ * 	<li>All other properties, e.g. {@link IProgramInfo.Props#TITLE TITLE} or {@link IProgramInfo.Props#REC_GROUP REC_GROUP},
+ *      are dictionary encoded. Each distinct value is stored only once and each program just references
+ *      the code of its value.</li>
+ * </ul>
+ * Columns are created on first access, therefore only the columns that are really used need to be decoded.
+ * <p>
+ * Additionally this class provides lazily created indexes:
+ * <ul>
+ * 	<li>{@link #findRows(IProgramInfo.Props, String) Hash indexes} to find all programs having a given property value.</li>
+ * 	<li>A {@link #findRowsStartingBetween(long, long) start-time index} to find all programs starting or airing in a given time range.</li>
+ * </ul>
+ * Programs can be {@link #getSortedRows(IProgramInfo.Props, boolean) sorted} by any property using primitive sort keys.
+ * <p>
+ * A column view is a snapshot of the values of the list at the time of creation.
+ * Use {@link ProgramInfoList#getColumns()} to get an up-to-date view.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    ProgramInfoList programs = (ProgramInfoList) backend.queryAllScheduled();
+ *    ProgramInfoColumns columns = programs.getColumns();
+ *    for(int i=0; i &lt; columns.size(); i++) &#123;
+ *       System.out.println(columns.getChannelID(i) + ": " + columns.getTitle(i));
+ *    &#125;
+ * </pre>}
+ */
+public final class ProgramInfoColumns implements IVersionable {
+	/**
+	 * The base class of all column types.
+	 */
+	private static abstract class Column {
+		abstract boolean isNull(int row);
+	}
+
+	private static final class IntColumn extends Column {
+		final int[] values;
+		final BitSet nulls;
+
+		IntColumn(int size) {
+			this.values = new int[size];
+			this.nulls = new BitSet(size);
+		}
+
+		boolean isNull(int row) {
+			return this.nulls.get(row);
+		}
+	}
+
+	private static final class LongColumn extends Column {
+		final long[] values;
+		final BitSet nulls;
+
+		LongColumn(int size) {
+			this.values = new long[size];
+			this.nulls = new BitSet(size);
+		}
+
+		boolean isNull(int row) {
+			return this.nulls.get(row);
+		}
+	}
+
+	private static final class DictionaryColumn extends Column {
+		/**
+		 * The dictionary code of each row or {@code -1} for {@code null} values.
+		 */
+		final int[] codes;
+
+		/**
+		 * The distinct values.
+		 */
+		final String[] dictionary;
+
+		DictionaryColumn(int[] codes, String[] dictionary) {
+			this.codes = codes;
+			this.dictionary = dictionary;
+		}
+
+		boolean isNull(int row) {
+			return this.codes[row] == -1;
+		}
+	}
+
+	/**
+	 * The protocol version of the list.
+	 */
+	private final ProtocolVersion protoVersion;
+
+	/**
+	 * The arguments of the list.
+	 */
+	private final List<String> args;
+
+	/**
+	 * The index of the first program argument.
+	 */
+	private final int offset;
+
+	/**
+	 * The amount of arguments per program.
+	 */
+	private final int rowLength;
+
+	/**
+	 * The amount of programs.
+	 */
+	private final int size;
+
+	/**
+	 * The modification counter of the arguments at the time of creation.
+	 */
+	private final int modCount;
+
+	/**
+	 * The lazily created columns, indexed by the property ordinal.
+	 */
+	private final AtomicReferenceArray<Column> columns;
+
+	/**
+	 * The lazily created hash indexes, indexed by the property ordinal.
+	 */
+	private final AtomicReferenceArray<HashIndex> hashIndexes;
+
+	/**
+	 * The lazily created start-time index.
+	 */
+	private volatile TimeIndex timeIndex;
+
+	ProgramInfoColumns(ProtocolVersion protoVersion, List<String> args, int offset, int size, int modCount) {
+		this.protoVersion = protoVersion;
+		this.args = args;
+		this.offset = offset;
+		this.rowLength = EnumUtils.getEnumLength(IProgramInfo.Props.class, protoVersion);
+		this.size = size;
+		this.modCount = modCount;
+		this.columns = new AtomicReferenceArray<Column>(IProgramInfo.Props.values().length);
+		this.hashIndexes = new AtomicReferenceArray<HashIndex>(IProgramInfo.Props.values().length);
+	}
+
+	public ProtocolVersion getVersionNr() {
+		return this.protoVersion;
+	}
+
+	/**
+	 * Gets the modification counter of the list arguments at the time this view was created.
+	 *
+	 * @return
+	 * 		the modification counter
+	 */
+	int getModCount() {
+		return this.modCount;
+	}
+
+	/**
+	 * Gets the amount of programs.
+	 *
+	 * @return
+	 * 		the amount of rows of each column
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Checks if the given property of the given program is {@code null}.
+	 * <p>
+	 * Properties that are not supported by the current protocol version are always {@code null}.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param row
+	 * 		the index of the program
+	 * @return
+	 * 		{@code true} if the value is {@code null}
+	 */
+	public boolean isNull(IProgramInfo.Props prop, int row) {
+		this.checkRow(row);
+		final Column column = this.getColumn(prop);
+		return column == null || column.isNull(row);
+	}
+
+	/**
+	 * Gets the value of an {@link Integer} property.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param row
+	 * 		the index of the program
+	 * @param defaultValue
+	 * 		the value to return if the property value is {@code null}
+	 * @return
+	 * 		the property value
+	 * @throws IllegalArgumentException
+	 * 		if the property is not of type {@link Integer}
+	 */
+	public int getInt(IProgramInfo.Props prop, int row, int defaultValue) {
+		this.checkRow(row);
+		final Column column = this.getColumn(prop);
+		if (column == null) return defaultValue;
+		else if (!(column instanceof IntColumn)) {
+			throw new IllegalArgumentException(String.format("The property %s is not an integer property.", prop));
+		}
+
+		final IntColumn intColumn = (IntColumn) column;
+		return intColumn.isNull(row) ? defaultValue : intColumn.values[row];
+	}
+
+	/**
+	 * Gets the value of a {@link Long}, {@link Integer} or {@link Date} property.
+	 * <p>
+	 * The values of {@link Date} properties are returned as seconds since the epoch.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param row
+	 * 		the index of the program
+	 * @param defaultValue
+	 * 		the value to return if the property value is {@code null}
+	 * @return
+	 * 		the property value
+	 * @throws IllegalArgumentException
+	 * 		if the property is not a numeric or date property
+	 */
+	public long getLong(IProgramInfo.Props prop, int row, long defaultValue) {
+		this.checkRow(row);
+		final Column column = this.getColumn(prop);
+		if (column == null || column.isNull(row)) {
+			return defaultValue;
+		} else if (column instanceof LongColumn) {
+			return ((LongColumn) column).values[row];
+		} else if (column instanceof IntColumn) {
+			return ((IntColumn) column).values[row];
+		}
+		throw new IllegalArgumentException(String.format("The property %s is not a numeric property.", prop));
+	}
+
+	/**
+	 * Gets the property value as string.
+	 * <p>
+	 * For dictionary encoded properties all programs with the same value share the same string instance.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param row
+	 * 		the index of the program
+	 * @return
+	 * 		the unparsed property value or {@code null}
+	 */
+	public String getString(IProgramInfo.Props prop, int row) {
+		this.checkRow(row);
+		final Column column = this.getColumn(prop);
+		if (column == null) return null;
+		else if (column instanceof DictionaryColumn) {
+			final DictionaryColumn dictColumn = (DictionaryColumn) column;
+			final int code = dictColumn.codes[row];
+			return code == -1 ? null : dictColumn.dictionary[code];
+		}
+
+		final int pos = EnumUtils.getEnumPosition(prop, this.protoVersion);
+		return pos == -1 ? null : this.args.get(this.offset + row * this.rowLength + pos);
+	}
+
+	/**
+	 * Gets the dictionary code of a dictionary encoded property.
+	 * <p>
+	 * Programs having the same property value have the same code.
+	 * This allows to group or compare programs without comparing strings.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param row
+	 * 		the index of the program
+	 * @return
+	 * 		the code or {@code -1} if the value is {@code null}
+	 * @throws IllegalArgumentException
+	 * 		if the property is not dictionary encoded
+	 */
+	public int getCode(IProgramInfo.Props prop, int row) {
+		this.checkRow(row);
+		final Column column = this.getColumn(prop);
+		if (column == null) return -1;
+		return this.getDictionaryColumn(prop, column).codes[row];
+	}
+
+	/**
+	 * Gets the amount of distinct values of a dictionary encoded property.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @return
+	 * 		the size of the dictionary
+	 * @throws IllegalArgumentException
+	 * 		if the property is not dictionary encoded
+	 */
+	public int getDictionarySize(IProgramInfo.Props prop) {
+		final Column column = this.getColumn(prop);
+		if (column == null) return 0;
+		return this.getDictionaryColumn(prop, column).dictionary.length;
+	}
+
+	/**
+	 * Gets the value of the given dictionary code.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param code
+	 * 		the code, see {@link #getCode(IProgramInfo.Props, int)}
+	 * @return
+	 * 		the unparsed property value
+	 * @throws IllegalArgumentException
+	 * 		if the property is not dictionary encoded
+	 */
+	public String getDictionaryValue(IProgramInfo.Props prop, int code) {
+		final Column column = this.getColumn(prop);
+		if (column == null || code == -1) return null;
+		return this.getDictionaryColumn(prop, column).dictionary[code];
+	}
+
+	/* ============================================================================
+	 * Typed getters
+	 * ============================================================================ */
+
+	/**
+	 * @see IProgramInfo#getChannelID()
+	 * @return
+	 * 		the channel id or {@code -1}
+	 */
+	public int getChannelID(int row) {
+		return this.getInt(CHANNEL_ID, row, -1);
+	}
+
+	/**
+	 * @see IProgramInfo#getStartDateTime()
+	 * @return
+	 * 		the start time in seconds since the epoch or {@code -1}
+	 */
+	public long getStartTime(int row) {
+		return this.getLong(START_DATE_TIME, row, -1);
+	}
+
+	/**
+	 * @see IProgramInfo#getEndDateTime()
+	 * @return
+	 * 		the end time in seconds since the epoch or {@code -1}
+	 */
+	public long getEndTime(int row) {
+		return this.getLong(END_DATE_TIME, row, -1);
+	}
+
+	/**
+	 * @see IProgramInfo#getRecordingStartTime()
+	 * @return
+	 * 		the recording start time in seconds since the epoch or {@code -1}
+	 */
+	public long getRecordingStartTime(int row) {
+		return this.getLong(REC_START_TIME, row, -1);
+	}
+
+	/**
+	 * @see IProgramInfo#getRecordingEndTime()
+	 * @return
+	 * 		the recording end time in seconds since the epoch or {@code -1}
+	 */
+	public long getRecordingEndTime(int row) {
+		return this.getLong(REC_END_TIME, row, -1);
+	}
+
+	/**
+	 * @see IProgramInfo#getFileSize()
+	 * @return
+	 * 		the file size or {@code -1}
+	 */
+	public long getFileSize(int row) {
+		return this.getLong(FILESIZE, row, -1);
+	}
+
+	/**
+	 * @see IProgramInfo#getTitle()
+	 */
+	public String getTitle(int row) {
+		return this.getString(TITLE, row);
+	}
+
+	/**
+	 * @see IProgramInfo#getCategory()
+	 */
+	public String getCategory(int row) {
+		return this.getString(CATEGORY, row);
+	}
+
+	/**
+	 * @see IProgramInfo#getRecordingGroup()
+	 */
+	public String getRecordingGroup(int row) {
+		return this.getString(REC_GROUP, row);
+	}
+
+	/**
+	 * @see IProgramInfo#getStorageGroup()
+	 */
+	public String getStorageGroup(int row) {
+		return this.getString(STORAGE_GROUP, row);
+	}
+
+	/* ============================================================================
+	 * Indexes
+	 * ============================================================================ */
+
+	/**
+	 * Maps each distinct property value to the programs having this value.
+	 */
+	private static final class HashIndex {
+		final HashMap<String,int[]> rows;
+
+		HashIndex(HashMap<String,int[]> rows) {
+			this.rows = rows;
+		}
+	}
+
+	/**
+	 * All programs having a start time, sorted by their start time.
+	 */
+	private static final class TimeIndex {
+		/**
+		 * The program indices, sorted by start time.
+		 */
+		final int[] rows;
+
+		/**
+		 * The start times of the sorted programs.
+		 */
+		final long[] startTimes;
+
+		/**
+		 * The maximum duration of all programs in seconds.
+		 */
+		final long maxDuration;
+
+		TimeIndex(int[] rows, long[] startTimes, long maxDuration) {
+			this.rows = rows;
+			this.startTimes = startTimes;
+			this.maxDuration = maxDuration;
+		}
+	}
+
+	/**
+	 * Finds all programs having the given property value.
+	 * <p>
+	 * A hash index for the property is created on first access. Afterwards each lookup
+	 * only needs constant time.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param value
+	 * 		the unparsed property value, e.g. {@code 1000} for {@link IProgramInfo.Props#CHANNEL_ID}
+	 * @return
+	 * 		the indices of the found programs in ascending order. The returned array must not be modified.
+	 */
+	public int[] findRows(IProgramInfo.Props prop, String value) {
+		if (value == null) return EMPTY_ROWS;
+
+		HashIndex index = this.hashIndexes.get(prop.ordinal());
+		if (index == null) {
+			index = this.createHashIndex(prop);
+			if (!this.hashIndexes.compareAndSet(prop.ordinal(), null, index)) {
+				index = this.hashIndexes.get(prop.ordinal());
+			}
+		}
+
+		final int[] rows = index.rows.get(value);
+		return rows == null ? EMPTY_ROWS : rows;
+	}
+
+	/**
+	 * Finds all programs starting in the given time range.
+	 * <p>
+	 * A sorted start-time index is created on first access. Afterwards each lookup
+	 * only needs logarithmic time.
+	 *
+	 * @param from
+	 * 		the start of the range in seconds since the epoch, inclusive
+	 * @param to
+	 * 		the end of the range in seconds since the epoch, exclusive
+	 * @return
+	 * 		the indices of the found programs, sorted by start time
+	 */
+	public int[] findRowsStartingBetween(long from, long to) {
+		final TimeIndex index = this.getTimeIndex();
+		final int fromPos = lowerBound(index.startTimes, from);
+		final int toPos = lowerBound(index.startTimes, to);
+		if (fromPos >= toPos) return EMPTY_ROWS;
+		return Arrays.copyOfRange(index.rows, fromPos, toPos);
+	}
+
+	/**
+	 * Finds all programs airing in the given time range, i.e. programs starting before the end
+	 * of the range and ending after the start of the range.
+	 *
+	 * @param from
+	 * 		the start of the range in seconds since the epoch, inclusive
+	 * @param to
+	 * 		the end of the range in seconds since the epoch, exclusive
+	 * @return
+	 * 		the indices of the found programs, sorted by start time
+	 */
+	public int[] findRowsAiringBetween(long from, long to) {
+		final TimeIndex index = this.getTimeIndex();
+
+		// programs starting before this time can not reach the range
+		final int fromPos = lowerBound(index.startTimes, from - index.maxDuration);
+		final int toPos = lowerBound(index.startTimes, to);
+
+		final int[] result = new int[Math.max(0, toPos - fromPos)];
+		int count = 0;
+		for (int pos = fromPos; pos < toPos; pos++) {
+			final int row = index.rows[pos];
+			final long end = this.isNull(END_DATE_TIME, row) ? index.startTimes[pos] : this.getEndTime(row);
+			if (end > from || index.startTimes[pos] >= from) {
+				result[count++] = row;
+			}
+		}
+		return count == result.length ? result : Arrays.copyOf(result, count);
+	}
+
+	private static final int[] EMPTY_ROWS = new int[0];
+
+	private HashIndex createHashIndex(IProgramInfo.Props prop) {
+		// determine a code for each distinct value
+		final HashMap<String,Integer> codeMap = new HashMap<String,Integer>();
+		final int[] codes = new int[this.size];
+		int[] counts = new int[16];
+		for (int row = 0; row < this.size; row++) {
+			final String value = this.getString(prop, row);
+			if (value == null) {
+				codes[row] = -1;
+				continue;
+			}
+
+			Integer code = codeMap.get(value);
+			if (code == null) {
+				code = Integer.valueOf(codeMap.size());
+				codeMap.put(value, code);
+				if (code.intValue() == counts.length) counts = Arrays.copyOf(counts, counts.length * 2);
+			}
+			codes[row] = code.intValue();
+			counts[code.intValue()]++;
+		}
+
+		// collect the programs of each code
+		final int[][] rowsByCode = new int[codeMap.size()][];
+		for (int code = 0; code < rowsByCode.length; code++) rowsByCode[code] = new int[counts[code]];
+		final int[] fill = new int[rowsByCode.length];
+		for (int row = 0; row < this.size; row++) {
+			final int code = codes[row];
+			if (code != -1) rowsByCode[code][fill[code]++] = row;
+		}
+
+		final HashMap<String,int[]> rows = new HashMap<String,int[]>(codeMap.size() * 2);
+		for (Map.Entry<String,Integer> entry : codeMap.entrySet()) {
+			rows.put(entry.getKey(), rowsByCode[entry.getValue().intValue()]);
+		}
+		return new HashIndex(rows);
+	}
+
+	private TimeIndex getTimeIndex() {
+		TimeIndex index = this.timeIndex;
+		if (index == null) {
+			index = this.createTimeIndex();
+			this.timeIndex = index;
+		}
+		return index;
+	}
+
+	private TimeIndex createTimeIndex() {
+		// collect all programs having a start time
+		final Integer[] sorted = new Integer[this.size];
+		int count = 0;
+		long maxDuration = 0;
+		for (int row = 0; row < this.size; row++) {
+			if (this.isNull(START_DATE_TIME, row)) continue;
+
+			final long start = this.getStartTime(row);
+			if (!this.isNull(END_DATE_TIME, row)) {
+				maxDuration = Math.max(maxDuration, this.getEndTime(row) - start);
+			}
+			sorted[count++] = Integer.valueOf(row);
+		}
+
+		// sort the programs by start time
+		Arrays.sort(sorted, 0, count, new Comparator<Integer>() {
+			public int compare(Integer row1, Integer row2) {
+				final long start1 = getStartTime(row1.intValue());
+				final long start2 = getStartTime(row2.intValue());
+				return start1 < start2 ? -1 : (start1 == start2 ? row1.compareTo(row2) : 1);
+			}
+		});
+
+		final int[] rows = new int[count];
+		final long[] startTimes = new long[count];
+		for (int i = 0; i < count; i++) {
+			rows[i] = sorted[i].intValue();
+			startTimes[i] = this.getStartTime(rows[i]);
+		}
+		return new TimeIndex(rows, startTimes, maxDuration);
+	}
+
+	/**
+	 * Returns the position of the first value that is equal or larger than the given key.
+	 */
+	private static int lowerBound(long[] values, long key) {
+		int low = 0, high = values.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (values[mid] < key) low = mid + 1;
+			else high = mid;
+		}
+		return low;
+	}
+
+	/* ============================================================================
+	 * Sorting
+	 * ============================================================================ */
+
+	/**
+	 * Sorts all programs by the given property.
+	 * <p>
+	 * Each property value is converted into a primitive sort key only once:
+	 * numeric and date values are ranked directly, dictionary encoded values are decoded
+	 * and ranked once per distinct value. Afterwards the programs are sorted by their keys.
+	 * <p>
+	 * Values are ordered like {@link ProgramInfoComparator} does,
+	 * i.e. programs without a value are sorted first in ascending order and last in descending order.
+	 * Programs with equal values keep their relative order.
+	 *
+	 * @param prop
+	 * 		the property to sort by
+	 * @param ascending
+	 * 		{@code true} to sort in ascending order or {@code false} to sort in descending order
+	 * @return
+	 * 		the indices of all programs in sorted order
+	 */
+	public int[] getSortedRows(IProgramInfo.Props prop, boolean ascending) {
+		final int[] ranks = this.getRanks(prop);
+
+		int maxRank = -1;
+		for (int row = 0; row < this.size; row++) maxRank = Math.max(maxRank, ranks[row]);
+
+		// the key of each row is its rank followed by the row index
+		final long[] keys = new long[this.size];
+		for (int row = 0; row < this.size; row++) {
+			final long key = ascending ? ranks[row] + 1 : maxRank - ranks[row];
+			keys[row] = (key << 32) | row;
+		}
+
+		if (ParallelUtils.isParallel(this.size)) {
+			Arrays.parallelSort(keys);
+		} else {
+			Arrays.sort(keys);
+		}
+
+		final int[] rows = new int[this.size];
+		for (int i = 0; i < this.size; i++) rows[i] = (int) keys[i];
+		return rows;
+	}
+
+	/**
+	 * Determines the rank of the property value of each program.
+	 *
+	 * @return
+	 * 		the rank of each program or {@code -1} if the value of the program is {@code null}
+	 */
+	private int[] getRanks(IProgramInfo.Props prop) {
+		final int[] ranks = new int[this.size];
+		final Column column = this.getColumn(prop);
+		if (column == null) {
+			Arrays.fill(ranks, -1);
+		} else if (column instanceof DictionaryColumn) {
+			final DictionaryColumn dictColumn = (DictionaryColumn) column;
+			final int[] codeRanks = this.getDictionaryRanks(prop, dictColumn.dictionary);
+			for (int row = 0; row < this.size; row++) {
+				final int code = dictColumn.codes[row];
+				ranks[row] = (code == -1) ? -1 : codeRanks[code];
+			}
+		} else {
+			// collect and sort the distinct values
+			long[] values = new long[this.size];
+			int count = 0;
+			for (int row = 0; row < this.size; row++) {
+				if (!column.isNull(row)) values[count++] = this.getLong(prop, row, 0);
+			}
+			Arrays.sort(values, 0, count);
+
+			int distinct = 0;
+			for (int i = 0; i < count; i++) {
+				if (distinct == 0 || values[distinct - 1] != values[i]) values[distinct++] = values[i];
+			}
+
+			for (int row = 0; row < this.size; row++) {
+				ranks[row] = column.isNull(row) ? -1 : Arrays.binarySearch(values, 0, distinct, this.getLong(prop, row, 0));
+			}
+		}
+		return ranks;
+	}
+
+	/**
+	 * Determines the rank of each dictionary value. Each value is decoded only once.
+	 */
+	private int[] getDictionaryRanks(final IProgramInfo.Props prop, String[] dictionary) {
+		final Class<?> dataType = EnumUtils.getEnumDataType(prop);
+		final Object[] values = new Object[dictionary.length];
+		final Integer[] codes = new Integer[dictionary.length];
+		for (int code = 0; code < dictionary.length; code++) {
+			final String value = dictionary[code];
+			if (value.length() == 0) values[code] = null;
+			else if (prop == CHANNEL_NUMBER) values[code] = value;
+			else values[code] = this.decode(dataType, value);
+			codes[code] = Integer.valueOf(code);
+		}
+
+		final Comparator<Integer> comparator = new Comparator<Integer>() {
+			public int compare(Integer code1, Integer code2) {
+				return ProgramInfoComparator.compareValues(prop, values[code1.intValue()], values[code2.intValue()]);
+			}
+		};
+		Arrays.sort(codes, comparator);
+
+		// equal values get the same rank
+		final int[] ranks = new int[dictionary.length];
+		int rank = -1;
+		for (int i = 0; i < codes.length; i++) {
+			final Object value = values[codes[i].intValue()];
+			if (value != null && (rank == -1 || comparator.compare(codes[i - 1], codes[i]) != 0)) rank++;
+			ranks[codes[i].intValue()] = (value == null) ? -1 : rank;
+		}
+		return ranks;
+	}
+
+	/* ============================================================================
+	 * Column creation
+	 * ============================================================================ */
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= this.size) throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + this.size);
+	}
+
+	private DictionaryColumn getDictionaryColumn(IProgramInfo.Props prop, Column column) {
+		if (!(column instanceof DictionaryColumn)) {
+			throw new IllegalArgumentException(String.format("The property %s is not dictionary encoded.", prop));
+		}
+		return (DictionaryColumn) column;
+	}
+
+	/**
+	 * Gets the column of the given property.
+	 *
+	 * @return
+	 * 		the column or {@code null} if the property is not supported by the protocol version
+	 */
+	private Column getColumn(IProgramInfo.Props prop) {
+		if (prop == null) throw new NullPointerException("The property must not be null");
+
+		Column column = this.columns.get(prop.ordinal());
+		if (column == null) {
+			column = this.createColumn(prop);
+			if (column == null) return null;
+
+			// if another thread was faster, its column is used
+			if (!this.columns.compareAndSet(prop.ordinal(), null, column)) {
+				column = this.columns.get(prop.ordinal());
+			}
+		}
+		return column;
+	}
+
+	private Column createColumn(IProgramInfo.Props prop) {
+		// the file size was split into two integers before protocol version 57
+		if (prop == FILESIZE && this.protoVersion.compareTo(PROTO_VERSION_57) < 0) {
+			return this.createFileSizeColumn();
+		}
+
+		final int pos = EnumUtils.getEnumPosition(prop, this.protoVersion);
+		if (pos == -1) return null;
+
+		final Class<?> dataType = EnumUtils.getEnumDataType(prop);
+		if (dataType == Integer.class) {
+			return this.createIntColumn(pos);
+		} else if (dataType == Long.class) {
+			return this.createLongColumn(pos, Long.class);
+		} else if (dataType == Date.class) {
+			return this.createLongColumn(pos, Date.class);
+		} else {
+			return this.createDictionaryColumn(pos);
+		}
+	}
+
+	private IntColumn createIntColumn(int pos) {
+		final IntColumn column = new IntColumn(this.size);
+		for (int row = 0; row < this.size; row++) {
+			final String value = this.args.get(this.offset + row * this.rowLength + pos);
+			final Integer intValue = this.decodeInteger(value);
+			if (intValue == null) {
+				column.nulls.set(row);
+			} else {
+				column.values[row] = intValue.intValue();
+			}
+		}
+		return column;
+	}
+
+	private LongColumn createLongColumn(int pos, Class<?> dataType) {
+		final LongColumn column = new LongColumn(this.size);
+		for (int row = 0; row < this.size; row++) {
+			final String value = this.args.get(this.offset + row * this.rowLength + pos);
+
+			Long longValue = null;
+			if (dataType == Date.class) {
+				final Date date = this.decode(Date.class, value);
+				if (date != null) longValue = Long.valueOf(date.getTime() / 1000);
+			} else {
+				longValue = this.decodeLong(value);
+			}
+
+			if (longValue == null) {
+				column.nulls.set(row);
+			} else {
+				column.values[row] = longValue.longValue();
+			}
+		}
+		return column;
+	}
+
+	@SuppressWarnings("deprecation")
+	private LongColumn createFileSizeColumn() {
+		final int posHigh = EnumUtils.getEnumPosition(IProgramInfo.Props.FILESIZE_HIGH, this.protoVersion);
+		final int posLow = EnumUtils.getEnumPosition(IProgramInfo.Props.FILESIZE_LOW, this.protoVersion);
+
+		final LongColumn column = new LongColumn(this.size);
+		for (int row = 0; row < this.size; row++) {
+			final int rowOffset = this.offset + row * this.rowLength;
+			final String high = posHigh == -1 ? null : this.args.get(rowOffset + posHigh);
+			final String low = posLow == -1 ? null : this.args.get(rowOffset + posLow);
+			if (high == null || high.length() == 0 || low == null || low.length() == 0) {
+				column.nulls.set(row);
+			} else {
+				column.values[row] = EncodingUtils.decodeLong(high, low);
+			}
+		}
+		return column;
+	}
+
+	private DictionaryColumn createDictionaryColumn(int pos) {
+		final int[] codes = new int[this.size];
+		final HashMap<String,Integer> codeMap = new HashMap<String,Integer>();
+		final ArrayList<String> dictionary = new ArrayList<String>();
+
+		for (int row = 0; row < this.size; row++) {
+			final String value = this.args.get(this.offset + row * this.rowLength + pos);
+			if (value == null) {
+				codes[row] = -1;
+				continue;
+			}
+
+			Integer code = codeMap.get(value);
+			if (code == null) {
+				code = Integer.valueOf(dictionary.size());
+				codeMap.put(value, code);
+				dictionary.add(value);
+			}
+			codes[row] = code.intValue();
+		}
+
+		return new DictionaryColumn(codes, dictionary.toArray(new String[dictionary.size()]));
+	}
+
+	private Integer decodeInteger(String value) {
+		if (value == null || value.length() == 0) return null;
+		try {
+			return Integer.valueOf(Integer.parseInt(value));
+		} catch (NumberFormatException e) {
+			return this.decode(Integer.class, value);
+		}
+	}
+
+	private Long decodeLong(String value) {
+		if (value == null || value.length() == 0) return null;
+		try {
+			return Long.valueOf(Long.parseLong(value));
+		} catch (NumberFormatException e) {
+			return this.decode(Long.class, value);
+		}
+	}
+
+	private <T> T decode(Class<T> dataType, String value) {
+		return EncodingUtils.decodeString(
+			dataType,
+			this.protoVersion,
+			-1, 				// we do not care about the database version
+			false,				// we use the local timezone
+			value
+		);
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import java.util.List;
+
+import org.jmythapi.impl.CopyOnWriteArgumentList;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.utils.EnumUtils;
+
+/**
+ * A cursor over a {@link ProgramInfoList}.
+ * <p>
+ * Iterating over a program-info list via {@link ProgramInfoList#iterator()} or {@link ProgramInfoList#get(int)}
+ * creates a new {@link IProgramInfo} object for each program. A cursor instead uses a single, reusable
+ * program-info object, that is moved from one program to the next. Read-only scans over a list therefore
+ * do not create any per-program objects.
+ * <p>
+ * The program returned by {@link #get()} is only valid until the cursor is moved. It must not be stored,
+ * e.g. in a collection. Use {@link ProgramInfoList#get(int)} to get a program that can be stored.
+ * Changing a property of the current program changes the value in the underlying list.
+ * <p>
+ * A cursor must not be shared between threads.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    ProgramInfoCursor cursor = programs.cursor();
+ *    while(cursor.next()) &#123;
+ *       IProgramInfo program = cursor.get();
+ *       System.out.println(program.getTitle());
+ *    &#125;
+ * </pre>}
+ */
+public final class ProgramInfoCursor {
+	/**
+	 * The amount of programs.
+	 */
+	private final int size;
+
+	/**
+	 * The amount of arguments per program.
+	 */
+	private final int rowLength;
+
+	/**
+	 * The view of the current program arguments.
+	 */
+	private final CopyOnWriteArgumentList view;
+
+	/**
+	 * The reusable program-info object.
+	 */
+	private final ProgramInfo program;
+
+	/**
+	 * The index of the program the view is currently pointing to.
+	 */
+	private int viewIndex = 0;
+
+	/**
+	 * The index of the current program or {@code -1} if the cursor is positioned before the first program.
+	 */
+	private int index = -1;
+
+	ProgramInfoCursor(ProtocolVersion protoVersion, List<String> args, int offset, int size) {
+		this.size = size;
+		this.rowLength = EnumUtils.getEnumLength(IProgramInfo.Props.class, protoVersion);
+
+		if (size == 0) {
+			this.view = null;
+			this.program = null;
+		} else {
+			this.view = CopyOnWriteArgumentList.valueOf(args).subList(offset, offset + this.rowLength);
+			this.program = new ProgramInfo(protoVersion, this.view);
+		}
+	}
+
+	/**
+	 * Gets the amount of programs.
+	 *
+	 * @return
+	 * 		the size of the underlying list
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Gets the index of the current program.
+	 *
+	 * @return
+	 * 		the index or {@code -1} if {@link #next()} was not called so far
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Moves the cursor to the next program.
+	 *
+	 * @return
+	 * 		{@code true} if there was a next program or {@code false} if the end of the list was reached
+	 */
+	public boolean next() {
+		if (this.index + 1 >= this.size) return false;
+		this.moveTo(this.index + 1);
+		return true;
+	}
+
+	/**
+	 * Moves the cursor to the given program.
+	 *
+	 * @param idx
+	 * 		the index of the program
+	 * @throws IndexOutOfBoundsException
+	 * 		if the index is out of range
+	 */
+	public void moveTo(int idx) {
+		if (idx < 0 || idx >= this.size) throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + this.size);
+
+		this.view.moveBy((idx - this.viewIndex) * this.rowLength);
+		this.viewIndex = idx;
+		this.index = idx;
+	}
+
+	/**
+	 * Positions the cursor before the first program.
+	 */
+	public void reset() {
+		this.index = -1;
+	}
+
+	/**
+	 * Gets the current program.
+	 * <p>
+	 * The returned object is reused for all programs and is only valid until the cursor is moved.
+	 *
+	 * @return
+	 * 		the current program
+	 * @throws IllegalStateException
+	 * 		if the cursor is not positioned on a program
+	 */
+	public IProgramInfo get() {
+		if (this.index == -1) throw new IllegalStateException("The cursor is not positioned on a program.");
+		return this.program;
+	}
+}
@@ -21,6 +21,7 @@ package org.jmythapi.protocol.response.impl;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -36,9 +37,12 @@ import org.jmythapi.protocol.ProtocolVersion;
 import org.jmythapi.protocol.response.IProgramInfo;
 import org.jmythapi.protocol.response.IProgramInfoFilter;
 import org.jmythapi.protocol.response.IProgramInfoList;
+import org.jmythapi.protocol.response.impl.filters.IProgramInfoColumnFilter;
 import org.jmythapi.protocol.utils.EnumUtils;
 import org.jmythapi.protocol.utils.PropertyAwareUtils;
 import org.jmythapi.utils.EncodingUtils;
+import org.jmythapi.utils.ParallelUtils;
+import org.jmythapi.utils.ParallelUtils.IRangeProcessor;
 
 public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> implements Iterable<IProgramInfo>, IProgramInfoList {
 	public ProgramInfoList(IMythPacket packet) {
@@ -49,6 +53,27 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 		super(protoVersion, IProgramInfoList.Props.class, responseArgs);
 	}
 	
+	/**
+	 * The column oriented view of this list.
+	 */
+	private volatile ProgramInfoColumns columns;
+	
+	/**
+	 * The cached result of {@link #size()}.
+	 * <p>
+	 * The upper 32 bits contain the {@link #getPropertyValuesModCount() modification counter} plus one, 
+	 * the lower 32 bits contain the size. A value of {@code 0} means that no size was cached.
+	 */
+	private volatile long cachedSize;
+	
+	/**
+	 * The program objects returned by {@link #asList()}.
+	 * <p>
+	 * The program-info objects are views of this list, therefore the cached list stays
+	 * valid as long as the size of this list is not changed.
+	 */
+	private volatile List<IProgramInfo> cachedList;
+	
 	@Override
 	protected int getExpectedSize(List<String> responseArgs) {
 		// getting the value of the size field
@@ -65,18 +90,137 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 	}
 	
 	public int size() {
-		return Integer.valueOf(this.getPropertyValue(IProgramInfoList.Props.SIZE));
+		final int modCount = this.getPropertyValuesModCount();
+		
+		final long cached = this.cachedSize;
+		if(modCount != -1 && cached != 0 && (int)(cached >>> 32) == modCount + 1) {
+			return (int) cached;
+		}
+		
+		final int size = Integer.parseInt(this.getPropertyValue(IProgramInfoList.Props.SIZE));
+		if(modCount != -1) {
+			this.cachedSize = ((long)(modCount + 1) << 32) | (size & 0xFFFFFFFFL);
+		}
+		return size;
 	}
 	
 	public boolean isEmpty() {
 		return this.size() == 0;
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The contained program objects are created only once. Each call returns a new modifiable list of them.
+	 */
 	public List<IProgramInfo> asList() {
-		return this.asList(null);
+		return new ArrayList<IProgramInfo>(this.getCachedList());
 	}
 	
+	/**
+	 * Gets the memoized, unmodifiable list of all programs.
+	 */
+	private List<IProgramInfo> getCachedList() {
+		List<IProgramInfo> list = this.cachedList;
+		if(list == null || list.size() != this.size()) {
+			list = Collections.unmodifiableList(this.createList());
+			this.cachedList = list;
+		}
+		return list;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The filter is called with a reusable {@link #cursor() cursor} program. Only 
+	 * accepted programs are copied into the result list. 
+	 * For lists larger than {@link ParallelUtils#PARALLEL_THRESHOLD} the filter is called 
+	 * concurrently by multiple threads.
+	 */
 	public List<IProgramInfo> asList(IProgramInfoFilter filter) {
+		if(filter == null) return this.asList();
+		
+		final BitSet rows = this.filterRows(filter)[0];
+		final ArrayList<IProgramInfo> progInfoList = new ArrayList<IProgramInfo>(rows.cardinality());
+		for(int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+			progInfoList.add(this.get(row));
+		}
+		return progInfoList;
+	}
+	
+	/**
+	 * Determines the indices of all programs accepted by the given filters.
+	 * <p>
+	 * Filters that are {@link IProgramInfoColumnFilter column filters} are evaluated on the 
+	 * {@link #getColumns() columns} of this list. All other filters are applied to each program,
+	 * whereby large lists are split into multiple ranges, which are filtered in parallel.
+	 * 
+	 * @param filters
+	 * 		the filters to apply. A {@code null} filter accepts all programs.
+	 * @return
+	 * 		the indices of the accepted programs, one set per filter
+	 */
+	private BitSet[] filterRows(final IProgramInfoFilter... filters) {
+		final BitSet[] rows = new BitSet[filters.length];
+		
+		// evaluating column filters
+		boolean hasRowFilters = false;
+		for(int i=0; i<filters.length; i++) {
+			if(filters[i] instanceof IProgramInfoColumnFilter) {
+				rows[i] = ((IProgramInfoColumnFilter)filters[i]).accept(this.getColumns());
+			}
+			hasRowFilters |= (rows[i] == null);
+		}
+		if(!hasRowFilters) return rows;
+		
+		// evaluating all remaining filters program by program
+		final BitSet[] rowFilterRows = ParallelUtils.invoke(this.size(), new IRangeProcessor<BitSet[]>() {
+			public BitSet[] process(int fromIdx, int toIdx) {
+				final BitSet[] result = new BitSet[filters.length];
+				for(int i=0; i<filters.length; i++) {
+					if(rows[i] == null) result[i] = new BitSet();
+				}
+				
+				// each range uses its own cursor
+				final ProgramInfoCursor cursor = cursor();
+				for(int row=fromIdx; row<toIdx; row++) {
+					cursor.moveTo(row);
+					final IProgramInfo program = cursor.get();
+					for(int i=0; i<filters.length; i++) {
+						if(result[i] != null && (filters[i] == null || filters[i].accept(program))) {
+							result[i].set(row);
+						}
+					}
+				}
+				return result;
+			}
+			
+			public BitSet[] merge(BitSet[] left, BitSet[] right) {
+				for(int i=0; i<left.length; i++) {
+					if(left[i] != null) left[i].or(right[i]);
+				}
+				return left;
+			}
+		});
+		
+		for(int i=0; i<filters.length; i++) {
+			if(rows[i] == null) rows[i] = rowFilterRows[i];
+		}
+		return rows;
+	}
+	
+	/**
+	 * Gets a cursor to iterate over this list without creating a program-info object per program.
+	 * 
+	 * @return
+	 * 		a new cursor positioned before the first program
+	 * @see ProgramInfoCursor
+	 */
+	public ProgramInfoCursor cursor() {
+		return new ProgramInfoCursor(this.protoVersion, this.respArgs, 1, this.size());
+	}
+	
+	private List<IProgramInfo> createList() {
 		final int size = this.size();
 		if (size == 0) return Collections.emptyList();
 		
@@ -97,10 +241,7 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 		for (int i=0; i<size; i++) {
 			int toIdx = fromIdx + progInfoArgsLengthExpected;
 			final List<String> progInfoArgs = this.respArgs.subList(fromIdx, toIdx);
-			final ProgramInfo progInfo = new ProgramInfo(this.protoVersion, progInfoArgs);
-			if(filter==null || filter.accept(progInfo)) {
-				progInfoList.add(progInfo);
-			}
+			progInfoList.add(new ProgramInfo(this.protoVersion, progInfoArgs));
 			fromIdx = toIdx;
 		}
 		
@@ -110,40 +251,24 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 	public IProgramInfoList filter(IProgramInfoFilter filter) {
 		if(filter == null) return this;
 		
-		final List<IProgramInfo> programs = this.asList(filter);
-		return ProgramInfoList.valueOf(this.protoVersion,programs);
+		final BitSet rows = this.filterRows(filter)[0];
+		return this.subset(rows);
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * All filters are applied in a single pass over the list. For lists larger than 
+	 * {@link ParallelUtils#PARALLEL_THRESHOLD} the filters are called concurrently by multiple threads.
+	 */
 	public IProgramInfoList[] multiFilter(IProgramInfoFilter... filters) {
 		if(filters == null) return null;
 		
-		final Map<IProgramInfoFilter,List<IProgramInfo>> programGroups = new LinkedHashMap<IProgramInfoFilter, List<IProgramInfo>>();
-		
-		final List<IProgramInfo> allPrograms = this.asList();
-		for(IProgramInfo program : allPrograms) {
-			for(IProgramInfoFilter filter : filters) {
-				if(filter == null || filter.accept(program)) {
-					List<IProgramInfo> programs = null;
-					if(programGroups.containsKey(filter)) {
-						programs = programGroups.get(filter);
-					} else {
-						programs = new ArrayList<IProgramInfo>();
-						programGroups.put(filter,programs);
-					}
-					programs.add(program);
-				}
-			}
-		}
+		final BitSet[] rows = this.filterRows(filters);
 		
 		final IProgramInfoList[] result = new IProgramInfoList[filters.length];
 		for(int i=0; i<filters.length;i++) {
-			final IProgramInfoFilter filter = filters[i];
-			final List<IProgramInfo> programs = programGroups.get(filter);
-			if(programs == null) {
-				result[i] = ProgramInfoList.emptyList(this.protoVersion);
-			} else {
-				result[i] = ProgramInfoList.valueOf(this.protoVersion, programs);
-			}
+			result[i] = this.subset(rows[i]);
 		}
 		
 		return result;
@@ -180,6 +305,12 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 //	}
 	
 	public IProgramInfo get(int idx) {
+		// reuse the cached program (if any)
+		final List<IProgramInfo> list = this.cachedList;
+		if (list != null && list.size() == this.size()) {
+			return list.get(idx);
+		}
+		
 		// determine the index
 		final int[] programInfoIdx = this.getProgramInfoIdx(idx);
 		
@@ -198,7 +329,7 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 	}
 	
 	public Iterator<IProgramInfo> iterator(IProgramInfoFilter filter) {
-		final List<IProgramInfo> programInfoList = this.asList(filter);
+		final List<IProgramInfo> programInfoList = (filter == null) ? this.getCachedList() : this.asList(filter);
 		return programInfoList.iterator();
 	}	
 	
@@ -206,10 +337,9 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 	public String toString() {
 		final StringBuffer buf = new StringBuffer();
 		
-		if (this.size() > 0) {
-			for (IProgramInfo progInfo : this.asList()) {
-				buf.append(progInfo.toString()).append("\r\n");
-			}
+		final ProgramInfoCursor cursor = this.cursor();
+		while (cursor.next()) {
+			buf.append(cursor.get().toString()).append("\r\n");
 		}
 		
 		return buf.toString();
@@ -238,7 +368,7 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 		
 		final LinkedHashMap<String,R> programMap = new LinkedHashMap<String,R>();
 		
-		final List<IProgramInfo> programs = asList();
+		final List<IProgramInfo> programs = this.getCachedList();
 		int programIndex = -1;
 		for(IProgramInfo program : programs) {
 			programIndex++;
@@ -278,11 +408,12 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 	
 	public Map<Object, IProgramInfoList> groupBy(IProgramInfo.Props prop, IProgramInfoFilter filter) {
 		if(prop == null) return Collections.emptyMap();
+		else if(filter == null) return this.groupByColumn(prop);
 
 		final Map<Object,IProgramInfoList> result = new HashMap<Object, IProgramInfoList>();
 		
 		// group by programs
-		final Map<Object,List<IProgramInfo>> entries = PropertyAwareUtils.groupListByProperty(this,prop, filter);
+		final Map<Object,List<IProgramInfo>> entries = PropertyAwareUtils.groupListByProperty(this.getCachedList(),prop, filter);
 		if(entries != null) {
 			for(Entry<Object,List<IProgramInfo>> entry : entries.entrySet()) {
 				result.put(
@@ -295,12 +426,168 @@ public class ProgramInfoList extends AMythResponse<IProgramInfoList.Props> imple
 		return result;
 	}
 	
+	/**
+	 * Groups the programs using the property column.
+	 * <p>
+	 * Each distinct property value is decoded only once and no program-info objects are created.
+	 */
+	private Map<Object, IProgramInfoList> groupByColumn(IProgramInfo.Props prop) {
+		final ProgramInfoColumns columns = this.getColumns();
+		final int size = columns.size();
+		
+		// group the program indices by the decoded property values
+		final Map<String,Object> decodedValues = new HashMap<String,Object>();
+		final Map<Object,List<Integer>> rowGroups = new HashMap<Object,List<Integer>>();
+		for(int row=0; row<size; row++) {
+			final String value = columns.getString(prop, row);
+			
+			Object key = decodedValues.get(value);
+			if(key == null && !decodedValues.containsKey(value)) {
+				key = this.decodeProperty(EnumUtils.getEnumDataType(prop), value);
+				decodedValues.put(value, key);
+			}
+			
+			List<Integer> rows = rowGroups.get(key);
+			if(rows == null) {
+				rows = new ArrayList<Integer>();
+				rowGroups.put(key, rows);
+			}
+			rows.add(Integer.valueOf(row));
+		}
+		
+		// copy the program arguments into the new lists
+		final Map<Object,IProgramInfoList> result = new HashMap<Object, IProgramInfoList>();
+		for(Entry<Object,List<Integer>> entry : rowGroups.entrySet()) {
+			result.put(entry.getKey(), this.subset(entry.getValue()));
+		}
+		return result;
+	}
+	
+	/* ============================================================================
+	 * Index based lookups
+	 * ============================================================================ */
+	
+	public IProgramInfoList findByChannelID(int channelId) {
+		return this.subset(this.getColumns().findRows(IProgramInfo.Props.CHANNEL_ID, Integer.toString(channelId)));
+	}
+	
+	public IProgramInfoList findByRecordingGroup(String recordingGroup) {
+		return this.subset(this.getColumns().findRows(IProgramInfo.Props.REC_GROUP, recordingGroup));
+	}
+	
+	public IProgramInfoList findByStorageGroup(String storageGroup) {
+		return this.subset(this.getColumns().findRows(IProgramInfo.Props.STORAGE_GROUP, storageGroup));
+	}
+	
+	public IProgramInfoList findByTitle(String title) {
+		return this.subset(this.getColumns().findRows(IProgramInfo.Props.TITLE, title));
+	}
+	
+	public IProgramInfoList findStartingBetween(Date from, Date to) {
+		if(from == null || to == null) throw new NullPointerException("The time range must not be null");
+		return this.subset(this.getColumns().findRowsStartingBetween(toSeconds(from), toSeconds(to)));
+	}
+	
+	public IProgramInfoList findAiringBetween(Date from, Date to) {
+		if(from == null || to == null) throw new NullPointerException("The time range must not be null");
+		return this.subset(this.getColumns().findRowsAiringBetween(toSeconds(from), toSeconds(to)));
+	}
+	
+	public IProgramInfoList sortBy(IProgramInfo.Props prop, boolean ascending) {
+		if(prop == null) throw new NullPointerException("The property must not be null");
+		return this.subset(this.getColumns().getSortedRows(prop, ascending));
+	}
+	
+	/**
+	 * Converts the given date into seconds since the epoch, rounding up to the next full second.
+	 */
+	private static long toSeconds(Date date) {
+		final long millis = date.getTime();
+		return millis / 1000 + ((millis % 1000 > 0) ? 1 : 0);
+	}
+	
+	/**
+	 * Creates a new list containing the programs at the given indices.
+	 */
+	private ProgramInfoList subset(int[] rows) {
+		final List<Integer> rowList = new ArrayList<Integer>(rows.length);
+		for(int row : rows) rowList.add(Integer.valueOf(row));
+		return this.subset(rowList);
+	}
+	
+	/**
+	 * Creates a new list containing the programs at the given indices.
+	 */
+	private ProgramInfoList subset(BitSet rows) {
+		final List<Integer> rowList = new ArrayList<Integer>(rows.cardinality());
+		for(int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+			rowList.add(Integer.valueOf(row));
+		}
+		return this.subset(rowList);
+	}
+	
+	/**
+	 * Creates a new list containing the programs at the given indices.
+	 */
+	private ProgramInfoList subset(List<Integer> rows) {
+		final int progInfoArgsLength = EnumUtils.getEnumLength(IProgramInfo.Props.class, this.protoVersion);
+		
+		final ArrayList<String> args = new ArrayList<String>((progInfoArgsLength * rows.size()) + 1);
+		args.add(Integer.toString(rows.size()));
+		for(Integer row : rows) {
+			final int fromIdx = 1 + (row.intValue() * progInfoArgsLength);
+			args.addAll(this.respArgs.subList(fromIdx, fromIdx + progInfoArgsLength));
+		}
+		
+		return new ProgramInfoList(this.protoVersion, args);
+	}
+	
+	/**
+	 * Gets a column oriented view of this list.
+	 * <p>
+	 * The view is created on first access and is recreated if a program of this list was changed.
+	 * 
+	 * @return
+	 * 		the column oriented view of this list
+	 */
+	public ProgramInfoColumns getColumns() {
+		final int modCount = this.getPropertyValuesModCount();
+		
+		ProgramInfoColumns columns = this.columns;
+		if(columns == null || modCount == -1 || columns.getModCount() != modCount) {
+			columns = new ProgramInfoColumns(this.protoVersion, this.respArgs, 1, this.size(), modCount);
+			this.columns = columns;
+		}
+		return columns;
+	}
+	
 	public long getTotalFilesSize() {
-		return getTotalFileSize(this);
+		final ProgramInfoColumns columns = this.getColumns();
+		
+		long totalSize = 0;
+		for(int row=0; row < columns.size(); row++) {
+			final long fileSize = columns.getFileSize(row);
+			if(fileSize <= 0) continue;
+			totalSize += fileSize;
+		}
+		return totalSize;
 	}
 	
 	public long getTotalDuration() {
-		return getTotalDuration(this,false);
+		final ProgramInfoColumns columns = this.getColumns();
+		
+		final long now = System.currentTimeMillis() / 1000;
+		long totalDuration = 0;
+		for(int row=0; row < columns.size(); row++) {
+			if(columns.isNull(IProgramInfo.Props.START_DATE_TIME, row)) continue;
+			
+			final long start = columns.getStartTime(row);
+			if(start > now) continue;
+			
+			final long end = columns.isNull(IProgramInfo.Props.END_DATE_TIME, row) ? now : columns.getEndTime(row);
+			totalDuration += (int)(Math.min(end, now) - start) / 60;
+		}
+		return totalDuration;
 	}	
 	
 	public static final long getTotalFileSize(Iterable<IProgramInfo> programs) {
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+import org.jmythapi.impl.CopyOnWriteArgumentList;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.IProgramInfoStream;
+import org.jmythapi.protocol.utils.EnumUtils;
+import org.jmythapi.protocol.utils.PacketArgumentReader;
+
+/**
+ * A stream of programs, decoded from a packet argument reader.
+ * <p>
+ * The packet must contain a header, which ends with the amount of programs, followed by the arguments of all programs.
+ * 
+ * @see IProgramInfoStream
+ */
+public class ProgramInfoStream implements IProgramInfoStream {
+	private final ProtocolVersion protoVersion;
+	private final PacketArgumentReader reader;
+	
+	/**
+	 * The amount of arguments per program.
+	 */
+	private final int rowLength;
+	
+	/**
+	 * The amount of programs.
+	 */
+	private final int size;
+	
+	/**
+	 * The amount of programs already returned.
+	 */
+	private int index = 0;
+	
+	/**
+	 * Creates a new stream and reads the response header.
+	 * 
+	 * @param protoVersion
+	 * 		the protocol version of the response
+	 * @param reader
+	 * 		the reader of the packet arguments
+	 * @param sizeIndex
+	 * 		the index of the header argument containing the amount of programs
+	 * @throws IOException
+	 * 		on communication errors or if the header is invalid
+	 */
+	public ProgramInfoStream(ProtocolVersion protoVersion, PacketArgumentReader reader, int sizeIndex) throws IOException {
+		if (protoVersion == null) throw new NullPointerException("No protocol-version specified");
+		if (reader == null) throw new NullPointerException("The reader must not be null");
+		
+		this.protoVersion = protoVersion;
+		this.reader = reader;
+		this.rowLength = EnumUtils.getEnumLength(IProgramInfo.Props.class, protoVersion);
+		
+		// reading the header
+		reader.skip(sizeIndex);
+		final String sizeString = reader.hasNext() ? reader.next() : null;
+		try {
+			this.size = Integer.parseInt(sizeString);
+		} catch (NumberFormatException e) {
+			reader.close();
+			throw new IOException(String.format("Unexpected program count '%s' in response header.", sizeString));
+		}
+		
+		if (this.size <= 0) reader.close();
+	}
+	
+	public ProtocolVersion getVersionNr() {
+		return this.protoVersion;
+	}
+	
+	public int size() {
+		return this.size;
+	}
+	
+	public boolean hasNext() {
+		return this.index < this.size;
+	}
+	
+	public IProgramInfo next() {
+		if (!this.hasNext()) throw new NoSuchElementException();
+		
+		try {
+			final String[] args = new String[this.rowLength];
+			for (int i = 0; i < this.rowLength; i++) {
+				if (!this.reader.hasNext()) {
+					throw new IOException(String.format(
+						"The response ended after %d of %d programs.", 
+						this.index, this.size
+					));
+				}
+				args[i] = this.reader.next();
+			}
+			
+			this.index++;
+			if (this.index == this.size) this.reader.close();
+			
+			final ProgramInfo program = new ProgramInfo(this.protoVersion, new CopyOnWriteArgumentList(args));
+			this.processProgram(program);
+			return program;
+		} catch (IOException e) {
+			this.index = this.size;
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Called for each program before it is returned. 
+	 * <p>
+	 * This can be overridden to correct program properties.
+	 * 
+	 * @param program
+	 * 		the next program
+	 */
+	protected void processProgram(ProgramInfo program) {
+		// nothing todo here
+	}
+	
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+	
+	public void close() throws IOException {
+		this.index = this.size;
+		this.reader.close();
+	}
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import static org.jmythapi.protocol.response.IProgramInfo.Props.CARD_ID;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.REC_END_TIME;
+import static org.jmythapi.protocol.response.IProgramInfo.Props.REC_START_TIME;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.IProgramInfoList;
+import org.jmythapi.protocol.response.IRecordingsPending;
+
+/**
+ * An interval index over the recording times of a list of programs.
+ * <p>
+ * This class indexes the {@link IProgramInfo#getRecordingStartTime() recording start} and
+ * {@link IProgramInfo#getRecordingEndTime() end} times and the {@link IProgramInfo#getCardID() recorder}
+ * of each program using interval trees. This allows to answer the following questions without
+ * scanning the whole list:
+ * <ul>
+ * 	<li>Which recordings overlap a given time range? See {@link #findOverlapping(Date, Date)}.</li>
+ * 	<li>Which recordings are active at a given time? See {@link #findActive(Date)}.</li>
+ * 	<li>Which recorders are busy in a given time range? See {@link #getBusyRecorders(Date, Date)}.</li>
+ * 	<li>How long is a recorder busy in a given time range? See {@link #getRecorderBusySeconds(int, Date, Date)}.</li>
+ * 	<li>Which recordings of the same recorder overlap each other? See {@link #findConflicts()}.</li>
+ * </ul>
+ * Programs without a recording start or end time are not indexed. Time ranges are handled as
+ * half-open intervals, i.e. a recording ending at the time another recording starts does not overlap it.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    IRecordingsPending pending = backend.queryAllPending();
+ *    RecordingSchedule schedule = RecordingSchedule.valueOf(pending);
+ *
+ *    for(IProgramInfo[] conflict : schedule.findConflicts()) &#123;
+ *       System.out.println(String.format(
+ *          "Recorder %d: '%s' overlaps '%s'",
+ *          conflict[0].getCardID(), conflict[0].getTitle(), conflict[1].getTitle()
+ *       ));
+ *    &#125;
+ * </pre>}
+ */
+public final class RecordingSchedule {
+	/**
+	 * An augmented interval tree, stored as a balanced binary tree over an array sorted by start time.
+	 * <p>
+	 * The root of a sub-range {@code [low,high)} is its middle element. For each root the maximum end
+	 * time of its sub-range is stored, which allows to skip sub-ranges ending before the queried range.
+	 */
+	private static final class IntervalTree {
+		final int[] rows;
+		final long[] starts;
+		final long[] ends;
+		final long[] maxEnds;
+
+		IntervalTree(int[] rows, long[] starts, long[] ends) {
+			this.rows = rows;
+			this.starts = starts;
+			this.ends = ends;
+			this.maxEnds = new long[rows.length];
+			this.build(0, rows.length);
+		}
+
+		private long build(int low, int high) {
+			if (low >= high) return Long.MIN_VALUE;
+
+			final int mid = (low + high) >>> 1;
+			final long maxEnd = Math.max(this.ends[mid], Math.max(this.build(low, mid), this.build(mid + 1, high)));
+			this.maxEnds[mid] = maxEnd;
+			return maxEnd;
+		}
+
+		/**
+		 * Collects the positions of all intervals overlapping {@code [from,to)}, sorted by start time.
+		 */
+		void query(int low, int high, long from, long to, List<Integer> result) {
+			if (low >= high) return;
+
+			final int mid = (low + high) >>> 1;
+			if (this.maxEnds[mid] <= from) return;
+
+			this.query(low, mid, from, to, result);
+			if (this.starts[mid] < to) {
+				if (this.ends[mid] > from) result.add(Integer.valueOf(mid));
+				this.query(mid + 1, high, from, to, result);
+			}
+		}
+
+		List<Integer> query(long from, long to) {
+			final List<Integer> result = new ArrayList<Integer>();
+			this.query(0, this.rows.length, from, to, result);
+			return result;
+		}
+	}
+
+	/**
+	 * The indexed programs.
+	 */
+	private final IProgramInfoList programs;
+
+	/**
+	 * The index over all recordings.
+	 */
+	private final IntervalTree allRecordings;
+
+	/**
+	 * The indexes over the recordings of each recorder.
+	 */
+	private final Map<Integer,IntervalTree> recorderRecordings;
+
+	private RecordingSchedule(IProgramInfoList programs, ProgramInfoColumns columns) {
+		this.programs = programs;
+
+		// collect all programs with a recording time
+		final int size = columns.size();
+		final Integer[] sortedRows = new Integer[size];
+		int count = 0;
+		for (int row = 0; row < size; row++) {
+			if (columns.isNull(REC_START_TIME, row) || columns.isNull(REC_END_TIME, row)) continue;
+			sortedRows[count++] = Integer.valueOf(row);
+		}
+
+		// sort them by their recording start time
+		final ProgramInfoColumns sortColumns = columns;
+		Arrays.sort(sortedRows, 0, count, new Comparator<Integer>() {
+			public int compare(Integer row1, Integer row2) {
+				final long start1 = sortColumns.getRecordingStartTime(row1.intValue());
+				final long start2 = sortColumns.getRecordingStartTime(row2.intValue());
+				return start1 < start2 ? -1 : (start1 == start2 ? row1.compareTo(row2) : 1);
+			}
+		});
+
+		// split them by recorder
+		final Map<Integer,List<Integer>> rowsByRecorder = new HashMap<Integer,List<Integer>>();
+		for (int i = 0; i < count; i++) {
+			final int row = sortedRows[i].intValue();
+			if (columns.isNull(CARD_ID, row)) continue;
+
+			final Integer recorderId = Integer.valueOf(columns.getInt(CARD_ID, row, -1));
+			List<Integer> recorderRows = rowsByRecorder.get(recorderId);
+			if (recorderRows == null) {
+				recorderRows = new ArrayList<Integer>();
+				rowsByRecorder.put(recorderId, recorderRows);
+			}
+			recorderRows.add(sortedRows[i]);
+		}
+
+		this.allRecordings = createTree(columns, Arrays.asList(sortedRows).subList(0, count));
+		this.recorderRecordings = new HashMap<Integer,IntervalTree>();
+		for (Entry<Integer,List<Integer>> entry : rowsByRecorder.entrySet()) {
+			this.recorderRecordings.put(entry.getKey(), createTree(columns, entry.getValue()));
+		}
+	}
+
+	private static IntervalTree createTree(ProgramInfoColumns columns, List<Integer> sortedRows) {
+		final int[] rows = new int[sortedRows.size()];
+		final long[] starts = new long[rows.length];
+		final long[] ends = new long[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = sortedRows.get(i).intValue();
+			starts[i] = columns.getRecordingStartTime(rows[i]);
+			ends[i] = columns.getRecordingEndTime(rows[i]);
+		}
+		return new IntervalTree(rows, starts, ends);
+	}
+
+	/**
+	 * Creates a new index over the given programs.
+	 *
+	 * @param programs
+	 * 		the programs to index
+	 * @return
+	 * 		the created index
+	 */
+	public static RecordingSchedule valueOf(IProgramInfoList programs) {
+		if (programs == null) throw new NullPointerException("The program list must not be null");
+
+		final ProgramInfoList programList = (programs instanceof ProgramInfoList)
+			? (ProgramInfoList) programs
+			: ProgramInfoList.valueOf(programs.getVersionNr(), programs.asList());
+		return new RecordingSchedule(programList, programList.getColumns());
+	}
+
+	/**
+	 * Creates a new index over the given pending recordings.
+	 *
+	 * @param pending
+	 * 		the pending recordings
+	 * @return
+	 * 		the created index
+	 */
+	public static RecordingSchedule valueOf(IRecordingsPending pending) {
+		if (pending == null) throw new NullPointerException("The pending recordings must not be null");
+		return valueOf(pending.getProgramInfoList());
+	}
+
+	/**
+	 * Gets the amount of indexed recordings.
+	 *
+	 * @return
+	 * 		the amount of programs having a recording start and end time
+	 */
+	public int size() {
+		return this.allRecordings.rows.length;
+	}
+
+	/**
+	 * Gets all recordings overlapping the given time range.
+	 *
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @return
+	 * 		the found recordings, sorted by recording start time
+	 */
+	public List<IProgramInfo> findOverlapping(Date from, Date to) {
+		return this.toPrograms(this.allRecordings, this.allRecordings.query(toSeconds(from), toSeconds(to)));
+	}
+
+	/**
+	 * Gets all recordings active at the given time.
+	 *
+	 * @param time
+	 * 		the time
+	 * @return
+	 * 		the found recordings, sorted by recording start time
+	 */
+	public List<IProgramInfo> findActive(Date time) {
+		final long seconds = toSeconds(time);
+		return this.toPrograms(this.allRecordings, this.allRecordings.query(seconds, seconds + 1));
+	}
+
+	/**
+	 * Gets the IDs of all recorders having at least one recording in the given time range.
+	 *
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @return
+	 * 		the sorted recorder IDs
+	 */
+	public Set<Integer> getBusyRecorders(Date from, Date to) {
+		final long fromSeconds = toSeconds(from);
+		final long toSeconds = toSeconds(to);
+
+		final Set<Integer> recorders = new TreeSet<Integer>();
+		for (Entry<Integer,IntervalTree> entry : this.recorderRecordings.entrySet()) {
+			final IntervalTree tree = entry.getValue();
+			final ArrayList<Integer> result = new ArrayList<Integer>(1);
+			tree.query(0, tree.rows.length, fromSeconds, toSeconds, result);
+			if (!result.isEmpty()) recorders.add(entry.getKey());
+		}
+		return recorders;
+	}
+
+	/**
+	 * Gets all recordings of the given recorder overlapping the given time range.
+	 *
+	 * @param recorderId
+	 * 		the ID of the recorder
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @return
+	 * 		the found recordings, sorted by recording start time
+	 */
+	public List<IProgramInfo> getRecorderOccupancy(int recorderId, Date from, Date to) {
+		final IntervalTree tree = this.recorderRecordings.get(Integer.valueOf(recorderId));
+		if (tree == null) return Collections.emptyList();
+		return this.toPrograms(tree, tree.query(toSeconds(from), toSeconds(to)));
+	}
+
+	/**
+	 * Gets the amount of seconds the given recorder is busy in the given time range.
+	 * <p>
+	 * Overlapping recordings are only counted once.
+	 *
+	 * @param recorderId
+	 * 		the ID of the recorder
+	 * @param from
+	 * 		the start of the time range, inclusive
+	 * @param to
+	 * 		the end of the time range, exclusive
+	 * @return
+	 * 		the busy time in seconds
+	 */
+	public long getRecorderBusySeconds(int recorderId, Date from, Date to) {
+		final IntervalTree tree = this.recorderRecordings.get(Integer.valueOf(recorderId));
+		if (tree == null) return 0;
+
+		final long fromSeconds = toSeconds(from);
+		final long toSeconds = toSeconds(to);
+
+		// the recordings are sorted by start time, therefore overlapping recordings can be merged in one pass
+		long busy = 0;
+		long coveredUntil = fromSeconds;
+		for (Integer pos : tree.query(fromSeconds, toSeconds)) {
+			final long start = Math.max(coveredUntil, tree.starts[pos.intValue()]);
+			final long end = Math.min(toSeconds, tree.ends[pos.intValue()]);
+			if (end > start) {
+				busy += end - start;
+				coveredUntil = end;
+			}
+		}
+		return busy;
+	}
+
+	/**
+	 * Gets all pairs of recordings that are scheduled on the same recorder and overlap each other.
+	 *
+	 * @return
+	 * 		the conflicting recordings. Each array contains two recordings, the first one
+	 * 		starting before or at the same time as the second one.
+	 */
+	public List<IProgramInfo[]> findConflicts() {
+		final List<IProgramInfo[]> conflicts = new ArrayList<IProgramInfo[]>();
+
+		final Set<Integer> recorderIds = new TreeSet<Integer>(this.recorderRecordings.keySet());
+		for (Integer recorderId : recorderIds) {
+			final IntervalTree tree = this.recorderRecordings.get(recorderId);
+
+			// all recordings starting before the end of a recording overlap it
+			for (int i = 0; i < tree.rows.length; i++) {
+				for (int j = i + 1; j < tree.rows.length && tree.starts[j] < tree.ends[i]; j++) {
+					conflicts.add(new IProgramInfo[]{
+						this.programs.get(tree.rows[i]),
+						this.programs.get(tree.rows[j])
+					});
+				}
+			}
+		}
+		return conflicts;
+	}
+
+	private List<IProgramInfo> toPrograms(IntervalTree tree, List<Integer> positions) {
+		final List<IProgramInfo> result = new ArrayList<IProgramInfo>(positions.size());
+		for (Integer pos : positions) {
+			result.add(this.programs.get(tree.rows[pos.intValue()]));
+		}
+		return result;
+	}
+
+	private static long toSeconds(Date date) {
+		if (date == null) throw new NullPointerException("The date must not be null");
+		return date.getTime() / 1000;
+	}
+}
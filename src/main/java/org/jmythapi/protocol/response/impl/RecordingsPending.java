@@ -88,6 +88,19 @@ public class RecordingsPending extends ARecordings<IRecordingsPending.Props> imp
 		return nextRecordings;
 	}	
 	
+	/**
+	 * Creates an interval index over all recordings that will be recorded.
+	 * <p>
+	 * The index can be used to find overlapping recordings, busy recorders or 
+	 * recordings conflicting on the same recorder without scanning the whole list.
+	 * 
+	 * @return
+	 * 		the index over all recordings with the status {@link Status#WILL_RECORD}
+	 */
+	public RecordingSchedule getRecordingSchedule() {
+		return RecordingSchedule.valueOf(this.getProgramInfoList(ProgramInfoFilters.status(Status.WILL_RECORD)));
+	}
+	
 	public Map<Integer, Date> getNextPendingRecordingsDates() {
 		final Map<Integer,Date> dates = new HashMap<Integer, Date>();
 		final Map<Integer,IProgramInfo> nextRecordings = this.getNextPendingRecordings();
@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jmythapi.protocol.response.ETransferPriority;
+
+/**
+ * Limits and shares the bandwidth of concurrent file transfers.
+ * <p>
+ * Before a {@link FileTransfer file transfer} requests a block from the backend, it {@link #acquire(Flow, int) acquires}
+ * the block size from its scheduler. The scheduler combines two mechanisms:
+ * <ul>
+ * 	<li><b>Token buckets:</b> the total bandwidth and optionally the bandwidth of each {@link ETransferPriority priority class} 
+ *      is limited to a rate in bytes per second. A bucket may be overdrawn by a single request, therefore blocks larger 
+ *      than the burst size are possible. Following requests wait until the bucket is refilled.</li>
+ * 	<li><b>Weighted fair sharing:</b> if multiple requests are waiting, they are granted in the order of their
+ *      virtual start time (start-time fair queuing). Each transfer therefore receives a share of the bandwidth 
+ *      proportional to the {@link ETransferPriority#getWeight() weight} of its priority class, and requests of 
+ *      interactive streams overtake queued requests of bulk copies.</li>
+ * </ul>
+ * By default no limit is set and requests are granted immediately. All file transfers use the {@link #getDefault() default scheduler}
+ * unless another one is {@link FileTransfer#setTransferScheduler(TransferScheduler) set}.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    // limit all transfers to 2 MB/s, and bulk copies to 1 MB/s
+ *    TransferScheduler scheduler = TransferScheduler.getDefault();
+ *    scheduler.setRate(2 * 1024 * 1024);
+ *    scheduler.setRate(ETransferPriority.BACKGROUND, 1024 * 1024);
+ *    
+ *    IFileTransfer archive = backend.annotateFileTransfer(recording);
+ *    archive.setTransferPriority(ETransferPriority.BACKGROUND);
+ *    archive.transferTo(targetFile);
+ * </pre>}
+ */
+public class TransferScheduler {
+	/**
+	 * The scheduler used by all file transfers by default.
+	 */
+	private static final TransferScheduler DEFAULT = new TransferScheduler();
+	
+	/**
+	 * The burst size of a bucket in milliseconds of its rate.
+	 */
+	private static final long BURST_MILLIS = 100;
+	
+	/**
+	 * The maximum time to wait before the waiting requests are checked again.
+	 */
+	private static final long MAX_WAIT_NANOS = 100 * 1000000L;
+	
+	/**
+	 * A token bucket.
+	 */
+	private static final class Bucket {
+		final long rate;
+		final double capacity;
+		double tokens;
+		long lastRefill = System.nanoTime();
+		
+		Bucket(long rate) {
+			this.rate = rate;
+			this.capacity = rate * BURST_MILLIS / 1000.0;
+			this.tokens = this.capacity;
+		}
+		
+		void refill(long now) {
+			this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.rate / 1e9);
+			this.lastRefill = now;
+		}
+		
+		/**
+		 * Gets the time to wait in nanoseconds until the bucket is no longer overdrawn.
+		 */
+		long getDelay() {
+			return this.tokens >= 0 ? 0 : (long) Math.ceil(-this.tokens * 1e9 / this.rate);
+		}
+	}
+	
+	/**
+	 * The scheduling state of a single file transfer.
+	 * 
+	 * @see TransferScheduler#createFlow(ETransferPriority)
+	 */
+	public static final class Flow {
+		private final ETransferPriority priority;
+		
+		/**
+		 * The virtual finish time of the last request of this flow.
+		 */
+		private double finishTag;
+		
+		private Flow(ETransferPriority priority) {
+			this.priority = priority;
+		}
+		
+		/**
+		 * Gets the priority class of this flow.
+		 * 
+		 * @return
+		 * 		the priority class
+		 */
+		public ETransferPriority getPriority() {
+			return this.priority;
+		}
+	}
+	
+	/**
+	 * A waiting request.
+	 */
+	private static final class Request implements Comparable<Request> {
+		final Flow flow;
+		final int size;
+		final double startTag;
+		final long sequence;
+		
+		Request(Flow flow, int size, double startTag, long sequence) {
+			this.flow = flow;
+			this.size = size;
+			this.startTag = startTag;
+			this.sequence = sequence;
+		}
+		
+		public int compareTo(Request other) {
+			final int result = Double.compare(this.startTag, other.startTag);
+			return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+		}
+	}
+	
+	private Bucket totalBucket;
+	private final Map<ETransferPriority, Bucket> priorityBuckets = new EnumMap<ETransferPriority, Bucket>(ETransferPriority.class);
+	
+	private final List<Request> waiting = new ArrayList<Request>();
+	private double virtualTime = 0;
+	private long sequence = 0;
+	
+	/**
+	 * Gets the scheduler used by all file transfers by default.
+	 * 
+	 * @return
+	 * 		the default scheduler
+	 */
+	public static TransferScheduler getDefault() {
+		return DEFAULT;
+	}
+	
+	/**
+	 * Creates a scheduler without any limit.
+	 */
+	public TransferScheduler() {
+	}
+	
+	/**
+	 * Sets the total bandwidth of all transfers.
+	 * 
+	 * @param rate
+	 * 		the maximum rate in bytes per second or {@code 0} to remove the limit
+	 */
+	public synchronized void setRate(long rate) {
+		if (rate < 0) throw new IllegalArgumentException("The rate must not be negative");
+		this.totalBucket = rate == 0 ? null : new Bucket(rate);
+		this.notifyAll();
+	}
+	
+	/**
+	 * Gets the total bandwidth of all transfers.
+	 * 
+	 * @return
+	 * 		the maximum rate in bytes per second or {@code 0} if no limit is set
+	 */
+	public synchronized long getRate() {
+		return this.totalBucket == null ? 0 : this.totalBucket.rate;
+	}
+	
+	/**
+	 * Sets the bandwidth of all transfers of the given priority class.
+	 * 
+	 * @param priority
+	 * 		the priority class
+	 * @param rate
+	 * 		the maximum rate in bytes per second or {@code 0} to remove the limit
+	 */
+	public synchronized void setRate(ETransferPriority priority, long rate) {
+		if (priority == null) throw new NullPointerException("The priority must not be null");
+		if (rate < 0) throw new IllegalArgumentException("The rate must not be negative");
+		if (rate == 0) {
+			this.priorityBuckets.remove(priority);
+		} else {
+			this.priorityBuckets.put(priority, new Bucket(rate));
+		}
+		this.notifyAll();
+	}
+	
+	/**
+	 * Gets the bandwidth of all transfers of the given priority class.
+	 * 
+	 * @param priority
+	 * 		the priority class
+	 * @return
+	 * 		the maximum rate in bytes per second or {@code 0} if no limit is set
+	 */
+	public synchronized long getRate(ETransferPriority priority) {
+		final Bucket bucket = this.priorityBuckets.get(priority);
+		return bucket == null ? 0 : bucket.rate;
+	}
+	
+	/**
+	 * Creates the scheduling state for a new file transfer.
+	 * 
+	 * @param priority
+	 * 		the priority class of the transfer
+	 * @return
+	 * 		the flow to pass to {@link #acquire(Flow, int)}
+	 */
+	public synchronized Flow createFlow(ETransferPriority priority) {
+		if (priority == null) throw new NullPointerException("The priority must not be null");
+		
+		// a new flow must not receive the bandwidth of the time it was idle
+		final Flow flow = new Flow(priority);
+		flow.finishTag = this.virtualTime;
+		return flow;
+	}
+	
+	/**
+	 * Waits until the given amount of bytes may be requested.
+	 * 
+	 * @param flow
+	 * 		the flow of the requesting file transfer
+	 * @param size
+	 * 		the amount of bytes to request
+	 * @throws InterruptedIOException
+	 * 		if the thread was interrupted while waiting
+	 */
+	public synchronized void acquire(Flow flow, int size) throws InterruptedIOException {
+		if (flow == null) throw new NullPointerException("The flow must not be null");
+		if (size <= 0) return;
+		
+		// fast path if no limit is set
+		if (this.totalBucket == null && this.priorityBuckets.isEmpty()) return;
+		
+		final double startTag = Math.max(this.virtualTime, flow.finishTag);
+		flow.finishTag = startTag + (double) size / flow.priority.getWeight();
+		
+		final Request request = new Request(flow, size, startTag, this.sequence++);
+		this.waiting.add(request);
+		try {
+			while (true) {
+				final long now = System.nanoTime();
+				final Request next = this.nextRequest(now);
+				final long delay;
+				if (next == request) {
+					delay = this.getDelay(this.totalBucket);
+					if (delay == 0) {
+						this.grant(request);
+						return;
+					}
+				} else if (next == null) {
+					// all requests are limited by their priority class
+					delay = this.getMinimumPriorityDelay();
+				} else {
+					// another request is served first, its grant wakes up this thread
+					delay = Math.max(this.getDelay(this.totalBucket), MAX_WAIT_NANOS);
+				}
+				
+				final long waitMillis = Math.max(1, delay / 1000000);
+				this.wait(waitMillis);
+			}
+		} catch (InterruptedException e) {
+			this.waiting.remove(request);
+			this.notifyAll();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for bandwidth");
+		}
+	}
+	
+	/**
+	 * Gets the waiting request with the lowest start tag, whose priority class is not limited at the moment.
+	 */
+	private Request nextRequest(long now) {
+		if (this.totalBucket != null) this.totalBucket.refill(now);
+		for (Bucket bucket : this.priorityBuckets.values()) {
+			bucket.refill(now);
+		}
+		
+		Request next = null;
+		for (Request request : this.waiting) {
+			if (this.getDelay(this.priorityBuckets.get(request.flow.priority)) > 0) continue;
+			if (next == null || request.compareTo(next) < 0) next = request;
+		}
+		return next;
+	}
+	
+	private long getMinimumPriorityDelay() {
+		long delay = Long.MAX_VALUE;
+		for (Request request : this.waiting) {
+			delay = Math.min(delay, this.getDelay(this.priorityBuckets.get(request.flow.priority)));
+		}
+		return delay == Long.MAX_VALUE ? 0 : delay;
+	}
+	
+	private long getDelay(Bucket bucket) {
+		return bucket == null ? 0 : bucket.getDelay();
+	}
+	
+	private void grant(Request request) {
+		this.waiting.remove(request);
+		this.virtualTime = request.startTag;
+		
+		if (this.totalBucket != null) this.totalBucket.tokens -= request.size;
+		final Bucket priorityBucket = this.priorityBuckets.get(request.flow.priority);
+		if (priorityBucket != null) priorityBucket.tokens -= request.size;
+		
+		// the next request may be granted now
+		this.notifyAll();
+	}
+}
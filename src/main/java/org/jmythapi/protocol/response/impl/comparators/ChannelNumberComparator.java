@@ -19,30 +19,155 @@
  */
 package org.jmythapi.protocol.response.impl.comparators;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
 
 import org.jmythapi.IBasicChannelInfo;
 
+/**
+ * A comparator to sort channels by their {@link IBasicChannelInfo#getChannelNumber() channel number}.
+ * <p>
+ * Channel numbers consisting of a major and an optional minor number, e.g. {@code 5}, {@code 5_1} or {@code 5-1},
+ * are sorted numerically and before all other channel numbers, which are sorted alphabetically.
+ * Channels without a channel number are sorted first.
+ * <p>
+ * To sort large channel lists, use {@link #sort(List)}, which parses each channel number only once.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    List&lt;IRecorderChannelInfo&gt; channels = backend.getChannelInfos();
+ *    ChannelNumberComparator.sort(channels);
+ * </pre>}
+ */
 public class ChannelNumberComparator implements Comparator<IBasicChannelInfo> {
+	/**
+	 * The sort key of channels without a channel number.
+	 */
+	private static final long NO_NUMBER = -1;
+
+	/**
+	 * The sort key of channel numbers that are not numeric.
+	 */
+	private static final long NOT_NUMERIC = Long.MAX_VALUE;
+
+	/**
+	 * The amount of bits used for the minor channel number.
+	 */
+	private static final int MINOR_BITS = 20;
+
 	public int compare(IBasicChannelInfo c1, IBasicChannelInfo c2) {
-		if(c1 == null) return -1;
+		if(c1 == c2) return 0;
+		else if(c1 == null) return -1;
 		else if(c2 == null) return 1;
 		
 		final String cn1 = c1.getChannelNumber();
-		if(cn1 == null) return -1;
-		
 		final String cn2 = c2.getChannelNumber();
-		if(cn2 ==  null) return 1;
-		
-		if(cn1.matches("\\d+") && cn2.matches("\\d+")) {
-			try {
-				return Integer.valueOf(cn1).compareTo(Integer.valueOf(cn2));
-			} catch (NumberFormatException e) {
-				// ignore this.
+		return compareChannelNumbers(getSortKey(cn1), cn1, getSortKey(cn2), cn2);
+	}
+
+	/**
+	 * Compares two channel numbers.
+	 *
+	 * @param channelNumber1
+	 * 		the first channel number, may be {@code null}
+	 * @param channelNumber2
+	 * 		the second channel number, may be {@code null}
+	 * @return
+	 * 		a negative number, zero or a positive number if the first channel number is
+	 * 		less than, equal to or greater than the second channel number
+	 */
+	public static int compareChannelNumbers(String channelNumber1, String channelNumber2) {
+		return compareChannelNumbers(getSortKey(channelNumber1), channelNumber1, getSortKey(channelNumber2), channelNumber2);
+	}
+
+	/**
+	 * Sorts the given channels by their channel number.
+	 * <p>
+	 * Each channel number is parsed only once into a primitive sort key. Afterwards the channels
+	 * are sorted by their keys. The sort is stable.
+	 *
+	 * @param <C>
+	 * 		the channel type
+	 * @param channels
+	 * 		the channels to sort
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends IBasicChannelInfo> void sort(List<C> channels) {
+		if(channels == null || channels.size() < 2) return;
+
+		// parsing the channel numbers
+		final Object[] elements = channels.toArray();
+		final int size = elements.length;
+		final long[] keys = new long[size];
+		final String[] numbers = new String[size];
+		final Integer[] order = new Integer[size];
+		for(int i=0; i<size; i++) {
+			final IBasicChannelInfo channel = (IBasicChannelInfo) elements[i];
+			numbers[i] = (channel == null) ? null : channel.getChannelNumber();
+			keys[i] = (channel == null) ? Long.MIN_VALUE : getSortKey(numbers[i]);
+			order[i] = Integer.valueOf(i);
+		}
+
+		// sorting by the parsed keys
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				final int idx1 = i1.intValue(), idx2 = i2.intValue();
+				return compareChannelNumbers(keys[idx1], numbers[idx1], keys[idx2], numbers[idx2]);
 			}
-		} 
-		
-		return cn1.compareTo(cn2);
+		});
+
+		final ListIterator<C> iter = channels.listIterator();
+		for(Integer idx : order) {
+			iter.next();
+			iter.set((C) elements[idx.intValue()]);
+		}
+	}
+
+	/**
+	 * Parses a channel number into a sort key.
+	 *
+	 * @param channelNumber
+	 * 		the channel number, e.g. {@code 5} or {@code 5_1}
+	 * @return
+	 * 		the major number followed by the minor number, {@link #NO_NUMBER} if the channel number
+	 * 		is {@code null} or {@link #NOT_NUMERIC} if the channel number is not numeric
+	 */
+	static long getSortKey(String channelNumber) {
+		if(channelNumber == null) return NO_NUMBER;
+
+		final int length = channelNumber.length();
+		long major = 0, minor = 0;
+		int majorDigits = 0, minorDigits = 0;
+		boolean hasMinor = false;
+		for(int i=0; i<length; i++) {
+			final char c = channelNumber.charAt(i);
+			if(c >= '0' && c <= '9') {
+				if(hasMinor) {
+					minor = minor * 10 + (c - '0');
+					minorDigits++;
+				} else {
+					major = major * 10 + (c - '0');
+					majorDigits++;
+				}
+			} else if(!hasMinor && majorDigits > 0 && (c == '_' || c == '-' || c == '.' || c == ' ')) {
+				hasMinor = true;
+			} else {
+				return NOT_NUMERIC;
+			}
+		}
+
+		if(majorDigits == 0 || majorDigits > 9 || minorDigits > 6 || (hasMinor && minorDigits == 0)) {
+			return NOT_NUMERIC;
+		}
+		return (major << MINOR_BITS) | (hasMinor ? minor + 1 : 0);
 	}
 
+	private static int compareChannelNumbers(long key1, String cn1, long key2, String cn2) {
+		if(key1 != key2) return key1 < key2 ? -1 : 1;
+		else if(cn1 == null || cn2 == null) return 0;
+		return cn1.compareTo(cn2);
+	}
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl.comparators;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+
+import org.jmythapi.protocol.response.IProgramInfo;
+
+/**
+ * A comparator to sort programs by a given {@link IProgramInfo.Props property}.
+ * <p>
+ * Programs are compared by their decoded property values. Programs having no value are sorted first 
+ * in ascending order and last in descending order.
+ * {@link IProgramInfo.Props#CHANNEL_NUMBER Channel numbers} are compared like {@link ChannelNumberComparator} does.
+ * <p>
+ * Comparing two programs requires to decode both property values. To sort large lists use
+ * {@link #sort(List, IProgramInfo.Props, boolean)}, which decodes each value only once, or
+ * {@link org.jmythapi.protocol.response.IProgramInfoList#sortBy(IProgramInfo.Props, boolean)}.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    List&lt;IProgramInfo&gt; programs = ...;
+ *    Collections.sort(programs, new ProgramInfoComparator(IProgramInfo.Props.START_DATE_TIME));
+ * </pre>}
+ */
+public class ProgramInfoComparator implements Comparator<IProgramInfo> {
+	private final IProgramInfo.Props prop;
+	private final boolean ascending;
+
+	/**
+	 * Creates a comparator sorting programs in ascending order.
+	 *
+	 * @param prop
+	 * 		the property to sort by
+	 */
+	public ProgramInfoComparator(IProgramInfo.Props prop) {
+		this(prop, true);
+	}
+
+	/**
+	 * Creates a comparator.
+	 *
+	 * @param prop
+	 * 		the property to sort by
+	 * @param ascending
+	 * 		{@code true} to sort in ascending order or {@code false} to sort in descending order
+	 */
+	public ProgramInfoComparator(IProgramInfo.Props prop, boolean ascending) {
+		if(prop == null) throw new NullPointerException("The property must not be null");
+		this.prop = prop;
+		this.ascending = ascending;
+	}
+
+	public int compare(IProgramInfo p1, IProgramInfo p2) {
+		final Object value1 = getSortValue(p1, this.prop);
+		final Object value2 = getSortValue(p2, this.prop);
+		final int result = compareValues(this.prop, value1, value2);
+		return this.ascending ? result : -result;
+	}
+
+	/**
+	 * Sorts the given programs by a property.
+	 * <p>
+	 * Each property value is decoded only once. Afterwards the programs are sorted by the decoded values.
+	 * The sort is stable.
+	 *
+	 * @param programs
+	 * 		the programs to sort
+	 * @param prop
+	 * 		the property to sort by
+	 * @param ascending
+	 * 		{@code true} to sort in ascending order or {@code false} to sort in descending order
+	 */
+	public static void sort(List<IProgramInfo> programs, final IProgramInfo.Props prop, final boolean ascending) {
+		if(prop == null) throw new NullPointerException("The property must not be null");
+		if(programs == null || programs.size() < 2) return;
+
+		// decoding all values
+		final IProgramInfo[] elements = programs.toArray(new IProgramInfo[programs.size()]);
+		final Object[] values = new Object[elements.length];
+		final Integer[] order = new Integer[elements.length];
+		for(int i=0; i<elements.length; i++) {
+			values[i] = getSortValue(elements[i], prop);
+			order[i] = Integer.valueOf(i);
+		}
+
+		// sorting by the decoded values
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer i1, Integer i2) {
+				final int result = compareValues(prop, values[i1.intValue()], values[i2.intValue()]);
+				return ascending ? result : -result;
+			}
+		});
+
+		final ListIterator<IProgramInfo> iter = programs.listIterator();
+		for(Integer idx : order) {
+			iter.next();
+			iter.set(elements[idx.intValue()]);
+		}
+	}
+
+	private static Object getSortValue(IProgramInfo program, IProgramInfo.Props prop) {
+		if(program == null) return null;
+		else if(prop == IProgramInfo.Props.CHANNEL_NUMBER) {
+			final String channelNumber = program.getPropertyValue(prop);
+			return (channelNumber == null || channelNumber.length() == 0) ? null : channelNumber;
+		}
+		return program.getPropertyValueObject(prop);
+	}
+
+	/**
+	 * Compares two decoded property values.
+	 *
+	 * @param prop
+	 * 		the property
+	 * @param value1
+	 * 		the first value, may be {@code null}
+	 * @param value2
+	 * 		the second value, may be {@code null}
+	 * @return
+	 * 		a negative number, zero or a positive number if the first value is
+	 * 		less than, equal to or greater than the second value
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static int compareValues(IProgramInfo.Props prop, Object value1, Object value2) {
+		if(value1 == value2) return 0;
+		else if(value1 == null) return -1;
+		else if(value2 == null) return 1;
+		else if(prop == IProgramInfo.Props.CHANNEL_NUMBER) {
+			return ChannelNumberComparator.compareChannelNumbers((String) value1, (String) value2);
+		} else if(value1 instanceof Comparable && value1.getClass() == value2.getClass()) {
+			return ((Comparable) value1).compareTo(value2);
+		}
+		return value1.toString().compareTo(value2.toString());
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl.filters;
+
+import java.util.BitSet;
+
+import org.jmythapi.protocol.response.IProgramInfoFilter;
+import org.jmythapi.protocol.response.impl.ProgramInfoColumns;
+
+/**
+ * A program filter that can be evaluated directly on the {@link ProgramInfoColumns columns} of a program list.
+ * <p>
+ * Instead of calling {@link #accept(org.jmythapi.protocol.response.IProgramInfo)} for each program, 
+ * the filter scans the required columns at once.
+ */
+public interface IProgramInfoColumnFilter extends IProgramInfoFilter {
+	/**
+	 * Determines all programs accepted by this filter.
+	 * 
+	 * @param columns
+	 * 		the columns of the program list
+	 * @return
+	 * 		the indices of all accepted programs or {@code null} if this filter 
+	 * 		can not be evaluated on the columns
+	 */
+	public BitSet accept(ProgramInfoColumns columns);
+}
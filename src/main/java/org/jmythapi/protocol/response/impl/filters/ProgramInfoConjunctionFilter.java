@@ -19,10 +19,13 @@
  */
 package org.jmythapi.protocol.response.impl.filters;
 
+import java.util.BitSet;
+
 import org.jmythapi.protocol.response.IProgramInfo;
 import org.jmythapi.protocol.response.IProgramInfoFilter;
+import org.jmythapi.protocol.response.impl.ProgramInfoColumns;
 
-public class ProgramInfoConjunctionFilter implements IProgramInfoFilter {
+public class ProgramInfoConjunctionFilter implements IProgramInfoColumnFilter {
 
 	final IProgramInfoFilter[] filters;
 	
@@ -39,4 +42,22 @@ public class ProgramInfoConjunctionFilter implements IProgramInfoFilter {
 		return true;
 	}
 
+	public BitSet accept(ProgramInfoColumns columns) {
+		BitSet result = null;
+		for(IProgramInfoFilter filter : this.filters) {
+			if(!(filter instanceof IProgramInfoColumnFilter)) return null;
+
+			final BitSet accepted = ((IProgramInfoColumnFilter)filter).accept(columns);
+			if(accepted == null) return null;
+			else if(result == null) result = accepted;
+			else result.and(accepted);
+		}
+		return (result == null) ? allRows(columns) : result;
+	}
+
+	private static BitSet allRows(ProgramInfoColumns columns) {
+		final BitSet result = new BitSet(columns.size());
+		result.set(0, columns.size());
+		return result;
+	}
 }
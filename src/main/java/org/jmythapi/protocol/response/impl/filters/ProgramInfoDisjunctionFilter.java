@@ -19,10 +19,13 @@
  */
 package org.jmythapi.protocol.response.impl.filters;
 
+import java.util.BitSet;
+
 import org.jmythapi.protocol.response.IProgramInfo;
 import org.jmythapi.protocol.response.IProgramInfoFilter;
+import org.jmythapi.protocol.response.impl.ProgramInfoColumns;
 
-public class ProgramInfoDisjunctionFilter implements IProgramInfoFilter {
+public class ProgramInfoDisjunctionFilter implements IProgramInfoColumnFilter {
 
 	final IProgramInfoFilter[] filters;
 	
@@ -39,4 +42,17 @@ public class ProgramInfoDisjunctionFilter implements IProgramInfoFilter {
 		return false;
 	}
 
+	public BitSet accept(ProgramInfoColumns columns) {
+		BitSet result = null;
+		for(IProgramInfoFilter filter : this.filters) {
+			if(!(filter instanceof IProgramInfoColumnFilter)) return null;
+
+			final BitSet accepted = ((IProgramInfoColumnFilter)filter).accept(columns);
+			if(accepted == null) return null;
+			else if(result == null) result = accepted;
+			else result.or(accepted);
+		}
+		return (result == null) ? new BitSet() : result;
+	}
+
 }
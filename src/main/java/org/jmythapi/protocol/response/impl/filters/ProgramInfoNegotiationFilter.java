@@ -19,10 +19,13 @@
  */
 package org.jmythapi.protocol.response.impl.filters;
 
+import java.util.BitSet;
+
 import org.jmythapi.protocol.response.IProgramInfo;
 import org.jmythapi.protocol.response.IProgramInfoFilter;
+import org.jmythapi.protocol.response.impl.ProgramInfoColumns;
 
-public class ProgramInfoNegotiationFilter implements IProgramInfoFilter {
+public class ProgramInfoNegotiationFilter implements IProgramInfoColumnFilter {
 	private IProgramInfoFilter programInfoFilter;
 	
 	public ProgramInfoNegotiationFilter(IProgramInfoFilter programInfoFilter) {
@@ -32,4 +35,12 @@ public class ProgramInfoNegotiationFilter implements IProgramInfoFilter {
 	public boolean accept(IProgramInfo program) {
 		return !this.programInfoFilter.accept(program);
 	}
+
+	public BitSet accept(ProgramInfoColumns columns) {
+		if(!(this.programInfoFilter instanceof IProgramInfoColumnFilter)) return null;
+
+		final BitSet result = ((IProgramInfoColumnFilter)this.programInfoFilter).accept(columns);
+		if(result != null) result.flip(0, columns.size());
+		return result;
+	}
 }
@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl.filters;
+
+import static org.jmythapi.protocol.ProtocolVersion.PROTO_VERSION_57;
+import static org.jmythapi.protocol.response.EFilterOperator.CONTAINS;
+import static org.jmythapi.protocol.response.EFilterOperator.EQUALS;
+import static org.jmythapi.protocol.response.EFilterOperator.NOT_EQUALS;
+import static org.jmythapi.protocol.response.EFilterOperator.STARTS_WITH;
+
+import java.util.BitSet;
+import java.util.Date;
+
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.EFilterOperator;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.impl.ProgramInfoColumns;
+import org.jmythapi.protocol.utils.EnumUtils;
+import org.jmythapi.utils.EncodingUtils;
+
+/**
+ * A filter comparing a single program property with a given value.
+ * <p>
+ * The filter is compiled once per protocol version: the position of the property is determined
+ * and the comparison value is converted into the representation used in the response arguments.
+ * Afterwards each program is checked by comparing the unparsed property string or the primitive
+ * column value, without creating any property objects:
+ * <ul>
+ * 	<li>{@link Integer} and {@link Long} properties are compared as primitive numbers.</li>
+ * 	<li>{@link Date} properties are compared as seconds since the epoch.</li>
+ * 	<li>{@link String} properties are compared as strings.</li>
+ * 	<li>All other properties are compared with the encoded comparison value. Only {@link EFilterOperator#EQUALS EQUALS}
+ *      and {@link EFilterOperator#NOT_EQUALS NOT_EQUALS} are supported for them.</li>
+ * </ul>
+ * If the filter is applied to a {@link org.jmythapi.protocol.response.impl.ProgramInfoList program list},
+ * it is evaluated on the {@link ProgramInfoColumns columns} of the list. For dictionary encoded properties
+ * the comparison is done only once per distinct value.
+ * <p>
+ * A program whose property value is {@code null} is only accepted by {@link EFilterOperator#NOT_EQUALS NOT_EQUALS},
+ * or by {@link EFilterOperator#EQUALS EQUALS} if the comparison value is {@code null} too.
+ *
+ * @see org.jmythapi.protocol.response.ProgramInfoFilters#property(IProgramInfo.Props, EFilterOperator, Object)
+ */
+public class ProgramInfoPropertyFilter implements IProgramInfoColumnFilter {
+	/**
+	 * The kinds of comparisons.
+	 */
+	private static enum Kind {
+		NUMBER, DATE, STRING, RAW
+	}
+
+	/**
+	 * The filter, compiled for a specific protocol version.
+	 */
+	private static final class Compiled {
+		final ProtocolVersion protoVersion;
+
+		/**
+		 * The position of the property or {@code -1} if the property is not supported.
+		 */
+		final int position;
+
+		/**
+		 * The numeric comparison value of {@link Kind#NUMBER} and {@link Kind#DATE} properties.
+		 */
+		final long number;
+
+		/**
+		 * The comparison value of {@link Kind#STRING} and {@link Kind#RAW} properties.
+		 */
+		final String string;
+
+		Compiled(ProtocolVersion protoVersion, int position, long number, String string) {
+			this.protoVersion = protoVersion;
+			this.position = position;
+			this.number = number;
+			this.string = string;
+		}
+	}
+
+	private final IProgramInfo.Props prop;
+	private final EFilterOperator operator;
+	private final Object value;
+	private final Kind kind;
+
+	/**
+	 * The filter compiled for the last used protocol version.
+	 */
+	private volatile Compiled compiled;
+
+	/**
+	 * Creates a new property filter.
+	 *
+	 * @param prop
+	 * 		the property to compare
+	 * @param operator
+	 * 		the comparison operator
+	 * @param value
+	 * 		the comparison value. This must be an object of the {@link EnumUtils#getEnumDataType data type}
+	 * 		of the property, a {@link Number} for numeric properties or the unparsed property string.
+	 * @throws IllegalArgumentException
+	 * 		if the operator is not supported for the given property
+	 */
+	public ProgramInfoPropertyFilter(IProgramInfo.Props prop, EFilterOperator operator, Object value) {
+		if (prop == null) throw new NullPointerException("The property must not be null");
+		if (operator == null) throw new NullPointerException("The operator must not be null");
+
+		this.prop = prop;
+		this.operator = operator;
+		this.value = value;
+
+		final Class<?> dataType = EnumUtils.getEnumDataType(prop);
+		if (dataType == Integer.class || dataType == Long.class) {
+			this.kind = Kind.NUMBER;
+		} else if (dataType == Date.class) {
+			this.kind = Kind.DATE;
+		} else if (dataType == String.class) {
+			this.kind = Kind.STRING;
+		} else {
+			this.kind = Kind.RAW;
+		}
+
+		if ((operator == STARTS_WITH || operator == CONTAINS) && this.kind != Kind.STRING) {
+			throw new IllegalArgumentException(String.format("The operator %s is only supported for string properties.", operator));
+		} else if (this.kind == Kind.RAW && operator != EQUALS && operator != NOT_EQUALS) {
+			throw new IllegalArgumentException(String.format("The operator %s is not supported for property %s.", operator, prop));
+		} else if (value == null && this.kind != Kind.STRING && this.kind != Kind.RAW) {
+			throw new NullPointerException("The value must not be null");
+		}
+	}
+
+	public boolean accept(IProgramInfo program) {
+		if (program == null) return false;
+
+		final Compiled compiled = this.compile(program.getVersionNr());
+		if (compiled.position == -1) {
+			// the file size was split into two integers before protocol version 57
+			if (this.prop == IProgramInfo.Props.FILESIZE && program.getFileSize() != null) {
+				return this.compare(program.getFileSize().longValue(), compiled.number);
+			}
+			return this.operator == NOT_EQUALS;
+		}
+
+		final String rawValue = program.getPropertyValue(compiled.position);
+		switch (this.kind) {
+			case NUMBER:
+				if (rawValue == null || rawValue.length() == 0) return this.operator == NOT_EQUALS;
+				try {
+					return this.compare(parseLong(rawValue), compiled.number);
+				} catch (NumberFormatException e) {
+					final Number number = (Number) EncodingUtils.decodeString(EnumUtils.getEnumDataType(this.prop), compiled.protoVersion, rawValue);
+					if (number == null) return this.operator == NOT_EQUALS;
+					return this.compare(number.longValue(), compiled.number);
+				}
+			case DATE:
+				final Date date = EncodingUtils.decodeString(Date.class, compiled.protoVersion, rawValue);
+				if (date == null) return this.operator == NOT_EQUALS;
+				return this.compare(date.getTime() / 1000, compiled.number);
+			default:
+				return this.accept(rawValue, compiled);
+		}
+	}
+
+	public BitSet accept(ProgramInfoColumns columns) {
+		final Compiled compiled = this.compile(columns.getVersionNr());
+		final int size = columns.size();
+		final BitSet result = new BitSet(size);
+
+		// the file size column combines the two integers used before protocol version 57
+		if (compiled.position == -1 && this.prop != IProgramInfo.Props.FILESIZE) {
+			if (this.operator == NOT_EQUALS) result.set(0, size);
+			return result;
+		}
+
+		if (this.kind == Kind.NUMBER || this.kind == Kind.DATE) {
+			for (int row = 0; row < size; row++) {
+				if (columns.isNull(this.prop, row)) {
+					if (this.operator == NOT_EQUALS) result.set(row);
+				} else if (this.compare(columns.getLong(this.prop, row, 0), compiled.number)) {
+					result.set(row);
+				}
+			}
+		} else {
+			// compare each distinct value only once
+			final int dictionarySize = columns.getDictionarySize(this.prop);
+			final boolean[] accepted = new boolean[dictionarySize];
+			for (int code = 0; code < dictionarySize; code++) {
+				accepted[code] = this.accept(columns.getDictionaryValue(this.prop, code), compiled);
+			}
+
+			final boolean acceptNull = this.accept((String) null, compiled);
+			for (int row = 0; row < size; row++) {
+				final int code = columns.getCode(this.prop, row);
+				if (code == -1 ? acceptNull : accepted[code]) result.set(row);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Compiles this filter for the given protocol version.
+	 */
+	private Compiled compile(ProtocolVersion protoVersion) {
+		Compiled compiled = this.compiled;
+		if (compiled != null && compiled.protoVersion == protoVersion) return compiled;
+
+		int position = EnumUtils.getEnumPosition(this.prop, protoVersion);
+		if (this.prop == IProgramInfo.Props.FILESIZE && protoVersion.compareTo(PROTO_VERSION_57) < 0) {
+			position = -1;
+		}
+
+		long number = 0;
+		String string = null;
+		switch (this.kind) {
+			case NUMBER:
+				number = (this.value instanceof Number)
+					? ((Number) this.value).longValue()
+					: parseLong(this.value.toString());
+				break;
+			case DATE:
+				number = (this.value instanceof Date)
+					? ((Date) this.value).getTime() / 1000
+					: EncodingUtils.decodeString(Date.class, protoVersion, this.value.toString()).getTime() / 1000;
+				break;
+			case STRING:
+				string = (this.value == null) ? "" : this.value.toString();
+				break;
+			default:
+				string = this.encode(protoVersion);
+				break;
+		}
+
+		compiled = new Compiled(protoVersion, position, number, string);
+		this.compiled = compiled;
+		return compiled;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private String encode(ProtocolVersion protoVersion) {
+		if (this.value == null) return "";
+		else if (this.value instanceof String) return (String) this.value;
+
+		final Class dataType = EnumUtils.getEnumDataType(this.prop);
+		final Class stringType = EnumUtils.getEnumStringType(this.prop);
+		return EncodingUtils.encodeObject(dataType, protoVersion, this.value, stringType, "");
+	}
+
+	private boolean accept(String rawValue, Compiled compiled) {
+		if (rawValue == null) rawValue = "";
+
+		if (this.kind == Kind.RAW || rawValue.length() == 0) {
+			// an empty string property is null and therefore only equal to null
+			final boolean equals = rawValue.equals(compiled.string);
+			if (this.operator == EQUALS) return equals;
+			else if (this.operator == NOT_EQUALS) return !equals;
+			return false;
+		}
+
+		switch (this.operator) {
+			case STARTS_WITH: return rawValue.startsWith(compiled.string);
+			case CONTAINS: return rawValue.contains(compiled.string);
+			default: return this.compare(rawValue.compareTo(compiled.string), 0);
+		}
+	}
+
+	private boolean compare(long propValue, long filterValue) {
+		switch (this.operator) {
+			case EQUALS: return propValue == filterValue;
+			case NOT_EQUALS: return propValue != filterValue;
+			case LESS: return propValue < filterValue;
+			case LESS_OR_EQUAL: return propValue <= filterValue;
+			case GREATER: return propValue > filterValue;
+			case GREATER_OR_EQUAL: return propValue >= filterValue;
+			default: return false;
+		}
+	}
+
+	/**
+	 * Parses a decimal number without creating any objects.
+	 */
+	private static long parseLong(String value) {
+		final int length = value.length();
+		int pos = 0;
+		boolean negative = false;
+		if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+			negative = value.charAt(0) == '-';
+			pos++;
+		}
+		if (pos == length) return Long.parseLong(value);
+
+		long result = 0;
+		for (; pos < length; pos++) {
+			final char c = value.charAt(pos);
+			if (c < '0' || c > '9' || result > (Long.MAX_VALUE - 9) / 10) {
+				// let the JDK handle unusual formats
+				return Long.parseLong(value);
+			}
+			result = result * 10 + (c - '0');
+		}
+		return negative ? -result : result;
+	}
+
+	@Override
+	public String toString() {
+		return this.prop + " " + this.operator + " " + this.value;
+	}
+}
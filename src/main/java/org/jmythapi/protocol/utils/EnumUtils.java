@@ -19,6 +19,7 @@
  */
 package org.jmythapi.protocol.utils;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -27,7 +28,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 
 import org.jmythapi.IPositionalValue;
@@ -37,6 +39,7 @@ import org.jmythapi.protocol.ProtocolVersionRange;
 import org.jmythapi.protocol.annotation.MythParameterDefaultValue;
 import org.jmythapi.protocol.annotation.MythProtoVersionAnnotation;
 import org.jmythapi.protocol.annotation.MythProtocolSkipProperty;
+import org.jmythapi.protocol.response.IFlag;
 import org.jmythapi.protocol.response.IVersionableValue;
 import org.jmythapi.protocol.response.IVersionableValue.VersionablePair;
 import org.jmythapi.utils.GenericEnumUtils;
@@ -59,7 +62,125 @@ public class EnumUtils extends GenericEnumUtils {
 	/**
 	 * A map to cache the result of {@link #getEnumVersionMap(Class)}
 	 */
-	private static final Map<Class<?>,EnumMap<?,ProtocolVersionRange>> versionMapCache = new HashMap<Class<?>,EnumMap<?,ProtocolVersionRange>>();
+	private static final Map<Class<?>,EnumMap<?,ProtocolVersionRange>> versionMapCache = new ConcurrentHashMap<Class<?>,EnumMap<?,ProtocolVersionRange>>();
+	
+	/**
+	 * A map to cache the lookup tables returned by {@link #getEnumTable(Class, ProtocolVersion)}.
+	 * <p>
+	 * For each enum class an array is stored, containing one table per {@link ProtocolVersion#ordinal() protocol version}.
+	 */
+	private static final ConcurrentHashMap<Class<?>,AtomicReferenceArray<EnumTable<?>>> enumTableCache = new ConcurrentHashMap<Class<?>,AtomicReferenceArray<EnumTable<?>>>();
+	
+	/**
+	 * Precomputed lookup tables for a single enum class and protocol version.
+	 * <p>
+	 * The tables are calculated once and are read-only afterwards, therefore they
+	 * can be shared between threads.
+	 * 
+	 * @param <E>
+	 * 		the Enum type
+	 */
+	private static final class EnumTable<E extends Enum<E>> {
+		/**
+		 * All enum constants supported in the protocol version.
+		 */
+		final EnumSet<E> enums;
+		
+		/**
+		 * The supported enum constants, ordered by their position in the backend response-array.
+		 */
+		final E[] byPosition;
+		
+		/**
+		 * The position of each enum constant, indexed by {@link Enum#ordinal()}, or {@code -1} if unsupported.
+		 */
+		final int[] positions;
+		
+		/**
+		 * The {@link IVersionableValue versionable} or {@link IFlag flag} value of each supported enum constant,
+		 * indexed by {@link Enum#ordinal()}, or {@code null} if unsupported.
+		 */
+		final Long[] values;
+		
+		/**
+		 * A reverse-lookup table mapping the {@link IVersionableValue versionable} values to the enum constants.
+		 */
+		final Map<Long,E> byValue;
+		
+		@SuppressWarnings("unchecked")
+		EnumTable(Class<E> propsClass, ProtocolVersion protoVersion) {
+			final EnumMap<E,ProtocolVersionRange> versionMap = getEnumVersionMap(propsClass);
+			final E[] allEnums = propsClass.getEnumConstants();
+			
+			this.enums = EnumSet.noneOf(propsClass);
+			this.positions = new int[allEnums.length];
+			this.values = new Long[allEnums.length];
+			this.byValue = new HashMap<Long,E>();
+			
+			final boolean isVersionable = IVersionableValue.class.isAssignableFrom(propsClass);
+			final boolean isFlag = IFlag.class.isAssignableFrom(propsClass);
+			
+			int pos = -1;
+			for(E enumItem : allEnums) {
+				final int ordinal = enumItem.ordinal();
+				this.positions[ordinal] = -1;
+				
+				final ProtocolVersionRange versionRange = versionMap.get(enumItem);
+				if(versionRange == null || !versionRange.isInRange(protoVersion)) continue;
+				
+				this.enums.add(enumItem);
+				this.positions[ordinal] = ++pos;
+				
+				if(isVersionable) {
+					final Long value = getVersionableValue(protoVersion, (IVersionableValue)enumItem);
+					this.values[ordinal] = value;
+					
+					// the first matching constant wins
+					if(value != null && !this.byValue.containsKey(value)) {
+						this.byValue.put(value, enumItem);
+					}
+				} else if(isFlag) {
+					this.values[ordinal] = ((IFlag)enumItem).getFlagValue();
+				}
+			}
+			this.byPosition = this.enums.toArray((E[]) Array.newInstance(propsClass, this.enums.size()));
+		}
+	}
+	
+	/**
+	 * Gets the cached lookup table for the given enum class and protocol version.
+	 * 
+	 * @param <E>
+	 * 		the Enum type
+	 * @param propsClass
+	 * 		the Enum class
+	 * @param protoVersion
+	 * 		the protocol version
+	 * @return
+	 * 		the lookup table or {@code null} if the class is not an Enum
+	 */
+	@SuppressWarnings("unchecked")
+	private static <E extends Enum<E>> EnumTable<E> getEnumTable(Class<E> propsClass, ProtocolVersion protoVersion) {
+		if(propsClass == null) return null;
+		
+		AtomicReferenceArray<EnumTable<?>> tables = enumTableCache.get(propsClass);
+		if(tables == null) {
+			// validate the class only once, getEnumConstants clones the constants array on each call
+			if(propsClass.getEnumConstants() == null) return null;
+			
+			tables = new AtomicReferenceArray<EnumTable<?>>(ProtocolVersion.values().length);
+			final AtomicReferenceArray<EnumTable<?>> existing = enumTableCache.putIfAbsent(propsClass, tables);
+			if(existing != null) tables = existing;
+		}
+		
+		EnumTable<E> table = (EnumTable<E>) tables.get(protoVersion.ordinal());
+		if(table == null) {
+			// concurrent threads may calculate the same table twice, which is harmless
+			table = new EnumTable<E>(propsClass, protoVersion);
+			tables.set(protoVersion.ordinal(), table);
+		}
+		return table;
+	}
 	
 	/**
 	 * Returns the amount of enum properties that are supported in the given protocol version.
@@ -93,18 +214,9 @@ public class EnumUtils extends GenericEnumUtils {
 	 * 		the amount of properties supported in the given protocol version
 	 */
 	public static <E extends Enum<E>> int getEnumLength(Class<E> propsClass, ProtocolVersion protoVersion) {
-		final EnumMap<E,ProtocolVersionRange> versionMap = getEnumVersionMap(propsClass);
-		if (versionMap == null) return 0;
-		
-		int counter = 0;
-		for (Entry<E,ProtocolVersionRange> entry : versionMap.entrySet()) {
-			final ProtocolVersionRange versionRange = entry.getValue();
-			if (!versionRange.isInRange(protoVersion)) {
-				continue;
-			}
-			counter++;
-		}
-		return counter;
+		final EnumTable<E> table = getEnumTable(propsClass, protoVersion);
+		if (table == null) return 0;
+		return table.byPosition.length;
 	}
 	
 	/**
@@ -288,22 +400,33 @@ public class EnumUtils extends GenericEnumUtils {
 	 * 		all enum properties that are supported in the given protocol version
 	 */
 	public static <E extends Enum<E>> EnumSet<E> getEnums(Class<E> propsClass, ProtocolVersion protoVersion) {
-		final EnumMap<E,ProtocolVersionRange> versionMap = getEnumVersionMap(propsClass);
-		if (versionMap == null) return null;
+		final EnumTable<E> table = getEnumTable(propsClass, protoVersion);
+		if (table == null) return null;
 		
-		final EnumSet<E> props = EnumSet.noneOf(propsClass);
-		for (Entry<E,ProtocolVersionRange> entry : versionMap.entrySet()) {
-			final E enumItem = entry.getKey();
-			final ProtocolVersionRange versionRange = entry.getValue();
-			
-			if (!versionRange.isInRange(protoVersion)) {
-				// property not supported in this version. skipping property
-				continue;
-			}
-
-			props.add(enumItem);
-		}
-		return props;
+		// the cached set is shared, therefore a copy is returned
+		return table.enums.clone();
+	}
+	
+	/**
+	 * Checks if the given Enum property is supported in the given protocol version.
+	 * <p>
+	 * In contrast to {@link #getEnumPosition(Enum, ProtocolVersion)} no warning is logged
+	 * for unsupported properties.
+	 * 
+	 * @param <E>
+	 * 		the Enum type
+	 * @param enumProp
+	 * 		the Enum property
+	 * @param protoVersion
+	 * 		the protocol version
+	 * @return
+	 * 		{@code true} if the property is supported in the given protocol version
+	 */
+	public static <E extends Enum<E>> boolean isEnumSupported(Enum<E> enumProp, ProtocolVersion protoVersion) {
+		if (enumProp == null) return false;
+		
+		final EnumTable<E> table = getEnumTable(enumProp.getDeclaringClass(), protoVersion);
+		return table != null && table.positions[enumProp.ordinal()] != -1;
 	}
 	
 	/**
@@ -332,17 +455,12 @@ public class EnumUtils extends GenericEnumUtils {
 	 */
 	public static <E extends Enum<E>> int getEnumPosition(Enum<E> enumProp, ProtocolVersion protoVersion) {
 		
-		// getting all enums for the given enum class and protocol version
-		final EnumSet<E> enumSet = getEnums(enumProp.getDeclaringClass(), protoVersion);
+		// getting the position table for the given enum class and protocol version
+		final EnumTable<E> table = getEnumTable(enumProp.getDeclaringClass(), protoVersion);
 		
-		// searching for the requested enum and return it's position
-		int pos = -1;
-		for(E nextProp : enumSet) {
-			pos++;
-			if(nextProp.equals(enumProp)) {
-				return pos;
-			}
-		}
+		// lookup the position of the requested enum
+		final int pos = table.positions[enumProp.ordinal()];
+		if(pos != -1) return pos;
 		
 		logger.warning(String.format(
 			"The enumeration property '%s' is not supported in protocol version '%s'.",
@@ -421,23 +539,22 @@ public class EnumUtils extends GenericEnumUtils {
 	 * @return
 	 * 		the enum property at the given position
 	 */
-	@SuppressWarnings("unchecked")
 	public static <E extends Enum<E>> E getEnum(Class<E> propsClass, ProtocolVersion protoVersion, int position) {				
-		// get the enum-set for the current protocol version
-		final EnumSet<E> enumSet = getEnums(propsClass, protoVersion);
+		// get the lookup table for the current protocol version
+		final EnumTable<E> table = getEnumTable(propsClass, protoVersion);
 			
 		if(IPositionalValue.class.isAssignableFrom(propsClass)) {
-			for(E enumEntry : enumSet) {
+			for(E enumEntry : table.byPosition) {
 				final int entryPos = ((IPositionalValue)enumEntry).getPosition();
 				if(entryPos == position) return enumEntry;				
 			}
 			return null;
 		} else {
 			if (position < 0) throw new IndexOutOfBoundsException();
-			else if (enumSet.size() <= position) throw new IndexOutOfBoundsException();			
+			else if (table.byPosition.length <= position) throw new IndexOutOfBoundsException();			
 			
 			// getting the item at the proper position
-			return (E) enumSet.toArray()[position];			
+			return table.byPosition[position];			
 		}
 	}
 	
@@ -501,17 +618,46 @@ public class EnumUtils extends GenericEnumUtils {
 	public static <E extends Enum<E> & IVersionableValue> E getVersionableValueEnum(Class<E> propsClass, ProtocolVersion protoVersion, Long value) {
 		if (value == null) return null;
 		
-		// getting the enum-set for the given protocol-version
-		final EnumSet<E> enumSet = EnumUtils.getEnums(propsClass, protoVersion);
+		// getting the reverse-lookup table for the given protocol-version
+		final EnumTable<E> table = getEnumTable(propsClass, protoVersion);
+		if (table == null) return null;
 		
-		// loop through all enums for the given value
-		for(E item : enumSet) {
-			final Long nextStatusValue = item.getValue(protoVersion);
-			if (nextStatusValue != null && nextStatusValue.equals(value)) {
-				return item;
-			}
-		}
-		return null;
+		return table.byValue.get(value);
+	}
+	
+	/**
+	 * Returns the value of the given flag for the given protocol version.
+	 * <p>
+	 * If the flag is of type {@link IVersionableValue} the value returned by {@link IVersionableValue#getValue(ProtocolVersion)} 
+	 * is used, otherwise the value returned by {@link IFlag#getFlagValue()}. The values are precalculated once
+	 * per Enum class and protocol version.
+	 * 
+	 * <h4>Usage example:</h4>
+	 * 
+	 * {@mythCodeExample <pre>
+	 *   // the following will return 0x00000020
+	 *   Long value1 = EnumUtils.getFlagValue(PROTO_VERSION_56, IProgramFlags.Flags.FL_INUSERECORDING);
+	 *   
+	 *   // the following will return 0x00100000
+	 *   Long value2 = EnumUtils.getFlagValue(PROTO_VERSION_57, IProgramFlags.Flags.FL_INUSERECORDING);
+	 * </pre>}
+	 * 
+	 * @param <E>
+	 * 		the Enum type
+	 * @param protoVersion
+	 * 		the protocol version
+	 * @param flag
+	 * 		the flag
+	 * @return
+	 * 		the flag value or {@code null} if the flag is not supported in the given protocol version
+	 */
+	public static <E extends Enum<E> & IFlag> Long getFlagValue(ProtocolVersion protoVersion, E flag) {
+		if (flag == null) return null;
+		
+		final EnumTable<E> table = getEnumTable(flag.getDeclaringClass(), protoVersion);
+		if (table == null) return null;
+		
+		return table.values[flag.ordinal()];
 	}
 	
 	/**
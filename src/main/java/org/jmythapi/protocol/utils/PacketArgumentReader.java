@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.jmythapi.protocol.IMythPacket;
+
+/**
+ * Reads the arguments of a MythTV-packet one at a time.
+ * <p>
+ * {@link PacketUtils#readFrom(org.jmythapi.protocol.ProtocolVersion, InputStream) Reading} a packet 
+ * requires to load the whole payload into memory before the first argument can be accessed.
+ * This reader instead reads the payload in small chunks and decodes each argument as soon as it 
+ * was received. The memory required to read a packet therefore is bounded by the size of the largest argument.
+ * <p>
+ * The reader must be {@link #close() closed} after use. Closing the reader skips all unread arguments,
+ * so that the next packet can be read from the stream.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    PacketArgumentReader reader = new PacketArgumentReader(socketInputStream, null);
+ *    try &#123;
+ *       while(reader.hasNext()) &#123;
+ *          System.out.println(reader.next());
+ *       &#125;
+ *    &#125; finally &#123;
+ *       reader.close();
+ *    &#125;
+ * </pre>}
+ * 
+ * @see IMythPacket
+ */
+public class PacketArgumentReader implements Closeable {
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	/**
+	 * The UTF-8 bytes of the {@link IMythPacket#DELIM argument delimiter}.
+	 */
+	private static final byte[] DELIM_BYTES = IMythPacket.DELIM.getBytes(UTF8);
+	
+	/**
+	 * The stream to read from or {@code null} if the arguments were already decoded.
+	 */
+	private final InputStream input;
+	
+	/**
+	 * The already decoded arguments or {@code null}.
+	 */
+	private final Iterator<String> args;
+	
+	/**
+	 * An optional deduplicator used to decode the arguments.
+	 */
+	private final StringDeduplicator deduplicator;
+	
+	/**
+	 * The amount of payload bytes not read from the stream so far.
+	 */
+	private int remaining;
+	
+	/**
+	 * The read but not yet processed bytes are {@code buffer[start]} to {@code buffer[end-1]}.
+	 */
+	private byte[] buffer = new byte[8192];
+	private int start = 0;
+	private int end = 0;
+	
+	/**
+	 * {@code true} if the last argument of the packet was returned.
+	 */
+	private boolean finished = false;
+	
+	/**
+	 * Creates a reader for the next packet of the given stream.
+	 * <p>
+	 * The payload size is read immediately.
+	 * 
+	 * @param input
+	 * 		the input stream
+	 * @param deduplicator
+	 * 		the deduplicator to decode the arguments with or {@code null}
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public PacketArgumentReader(InputStream input, StringDeduplicator deduplicator) throws IOException {
+		if (input == null) throw new NullPointerException("The input-stream is null");
+		
+		this.input = input;
+		this.args = null;
+		this.deduplicator = deduplicator;
+		this.remaining = PacketUtils.readPayloadSize(input);
+	}
+	
+	/**
+	 * Creates a reader for the arguments of an already received packet.
+	 * 
+	 * @param packet
+	 * 		the packet
+	 */
+	public PacketArgumentReader(IMythPacket packet) {
+		if (packet == null) throw new NullPointerException("The packet is null");
+		
+		this.input = null;
+		this.args = packet.getPacketArgs().iterator();
+		this.deduplicator = null;
+	}
+	
+	/**
+	 * Checks if there are more arguments to read.
+	 * 
+	 * @return
+	 * 		{@code true} if {@link #next()} returns another argument
+	 */
+	public boolean hasNext() {
+		if (this.args != null) return this.args.hasNext();
+		return !this.finished;
+	}
+	
+	/**
+	 * Reads the next argument.
+	 * 
+	 * @return
+	 * 		the next argument
+	 * @throws IOException
+	 * 		on communication errors
+	 * @throws NoSuchElementException
+	 * 		if all arguments were read
+	 */
+	public String next() throws IOException {
+		if (this.args != null) return this.args.next();
+		else if (this.finished) throw new NoSuchElementException();
+		
+		int scanFrom = this.start;
+		while (true) {
+			// searching the delimiter in the buffered bytes
+			final int delimPos = this.indexOfDelimiter(scanFrom);
+			if (delimPos != -1) {
+				final String arg = this.decode(this.start, delimPos - this.start);
+				this.start = delimPos + DELIM_BYTES.length;
+				return arg;
+			}
+			
+			if (this.remaining == 0) {
+				// the last argument
+				final String arg = this.decode(this.start, this.end - this.start);
+				this.start = this.end;
+				this.finished = true;
+				return arg;
+			}
+			
+			// the delimiter may start in the last bytes of the buffer
+			scanFrom = Math.max(this.start, this.end - DELIM_BYTES.length + 1) - this.start;
+			this.fill();
+			scanFrom += this.start;
+		}
+	}
+	
+	/**
+	 * Skips the given amount of arguments.
+	 * 
+	 * @param count
+	 * 		the amount of arguments to skip
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public void skip(int count) throws IOException {
+		for (int i = 0; i < count && this.hasNext(); i++) this.next();
+	}
+	
+	/**
+	 * Skips all unread arguments of the packet.
+	 */
+	public void close() throws IOException {
+		if (this.input == null || this.finished) return;
+		
+		this.finished = true;
+		this.start = this.end = 0;
+		while (this.remaining > 0) {
+			final int c = this.input.read(this.buffer, 0, Math.min(this.buffer.length, this.remaining));
+			if (c == -1) throw new EOFException("Unable to read the full packet.");
+			this.remaining -= c;
+		}
+	}
+	
+	private int indexOfDelimiter(int from) {
+		final byte first = DELIM_BYTES[0];
+		for (int i = from; i <= this.end - DELIM_BYTES.length; i++) {
+			if (this.buffer[i] != first) continue;
+			
+			int j = 1;
+			while (j < DELIM_BYTES.length && this.buffer[i + j] == DELIM_BYTES[j]) j++;
+			if (j == DELIM_BYTES.length) return i;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Reads the next chunk of the payload into the buffer.
+	 */
+	private void fill() throws IOException {
+		// moving the unprocessed bytes to the beginning of the buffer
+		final int unprocessed = this.end - this.start;
+		if (unprocessed == this.buffer.length) {
+			// the current argument does not fit into the buffer
+			final byte[] newBuffer = new byte[this.buffer.length * 2];
+			System.arraycopy(this.buffer, this.start, newBuffer, 0, unprocessed);
+			this.buffer = newBuffer;
+		} else if (this.start > 0) {
+			System.arraycopy(this.buffer, this.start, this.buffer, 0, unprocessed);
+		}
+		this.start = 0;
+		this.end = unprocessed;
+		
+		final int c = this.input.read(this.buffer, this.end, Math.min(this.buffer.length - this.end, this.remaining));
+		if (c == -1) throw new EOFException("Unable to read the full packet.");
+		this.end += c;
+		this.remaining -= c;
+	}
+	
+	private String decode(int offset, int length) {
+		if (this.deduplicator != null) return this.deduplicator.decode(this.buffer, offset, length);
+		return new String(this.buffer, offset, length, UTF8);
+	}
+}
@@ -25,6 +25,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -64,6 +65,11 @@ public class PacketUtils {
 	 */
 	public static final String DELIM_REGEXP = "[\\[][\\]]:[\\[][\\]]";
 	
+	/**
+	 * The UTF-8 bytes of the {@link IMythPacket#DELIM argument delimiter}.
+	 */
+	private static final byte[] DELIM_BYTES = IMythPacket.DELIM.getBytes(Charset.forName("UTF-8"));
+	
 	/**
 	 * Converts an MythTV data-line into a list of arguments.
 	 * <p>
@@ -124,6 +130,28 @@ public class PacketUtils {
 	 * 		on communication errors
 	 */
 	public static final IMythPacket readFrom(ProtocolVersion protoVersion, InputStream input) throws IOException {
+		return readFrom(protoVersion, input, null);
+	}
+	
+	/**
+	 * Reads a MythTV-packet from an input-stream, deduplicating the packet arguments.
+	 * <p>
+	 * The payload is split into arguments on byte level. Each argument is looked up in the given
+	 * deduplicator using its raw bytes, therefore repeated values are decoded only once and 
+	 * all arguments with the same value share the same string instance.
+	 *  
+	 * @param protoVersion 
+	 * 		the protocol version of the packet
+	 * @param input 
+	 * 		the input stream containing the packet data
+	 * @param deduplicator
+	 * 		the deduplicator to use or {@code null} to create a new string for each argument
+	 * @return 
+	 * 		the read packet
+	 * @throws IOException
+	 * 		on communication errors
+	 */
+	public static final IMythPacket readFrom(ProtocolVersion protoVersion, InputStream input, StringDeduplicator deduplicator) throws IOException {
 		if (protoVersion == null) throw new NullPointerException("No protocol-version specified");
 		else if (input == null) throw new NullPointerException("The input-stream is null");
 		
@@ -139,6 +167,10 @@ public class PacketUtils {
 	    	p += c;
 		} while (c > 0 && p < messageLength);
 		
+	    if(deduplicator != null) {
+	    	return new MythPacket(protoVersion, split(buf, p, deduplicator));
+	    }
+	    
 	    // Split the data into packet arguments
 	    final String respLine = new String(buf,0,p,"UTF-8");
 	    
@@ -146,6 +178,29 @@ public class PacketUtils {
 		return new MythPacket(protoVersion, respLine);
 	}
 	
+	/**
+	 * Splits the raw packet payload into arguments.
+	 */
+	private static ArrayList<String> split(byte[] buf, int length, StringDeduplicator deduplicator) {
+		final byte[] delim = DELIM_BYTES;
+		final ArrayList<String> args = new ArrayList<String>();
+		
+		int start = 0;
+		for(int i = 0; i <= length - delim.length; i++) {
+			if(buf[i] != delim[0]) continue;
+			
+			boolean match = true;
+			for(int j = 1; j < delim.length && match; j++) match = buf[i + j] == delim[j];
+			if(!match) continue;
+			
+			args.add(deduplicator.decode(buf, start, i - start));
+			i += delim.length - 1;
+			start = i + 1;
+		}
+		args.add(deduplicator.decode(buf, start, length - start));
+		return args;
+	}
+	
 	public static final int readPayloadSize(InputStream input) throws IOException {
 		// read the first 8 bytes containing the message length
 		final byte[] buf = new byte[SIZE_STRING_LENGTH];
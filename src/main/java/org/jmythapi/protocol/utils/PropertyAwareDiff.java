@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.utils;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.jmythapi.IPropertyAware;
+
+/**
+ * The differences between two lists of property-aware objects.
+ * <p>
+ * An object of the old list, that has no object with the same key in the new list, is {@link #getRemoved() removed}. 
+ * An object of the new list, that has no object with the same key in the old list, is {@link #getAdded() added}.
+ * Objects with the same key, but different property values, are {@link #getChanged() changed}.
+ * 
+ * @param <P>
+ * 		the type of the properties
+ * @param <E>
+ * 		the type of the compared objects
+ * 
+ * @see PropertyAwareUtils#diff(Iterable, Iterable, Enum...)
+ */
+public class PropertyAwareDiff <P extends Enum<P>, E extends IPropertyAware<P>> {
+	/**
+	 * An object contained in both lists with different property values.
+	 * 
+	 * @param <P>
+	 * 		the type of the properties
+	 * @param <E>
+	 * 		the type of the compared objects
+	 */
+	public static class Change <P extends Enum<P>, E extends IPropertyAware<P>> {
+		private final E oldValue;
+		private final E newValue;
+		private final EnumSet<P> changedProperties;
+		
+		public Change(E oldValue, E newValue, EnumSet<P> changedProperties) {
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+			this.changedProperties = changedProperties;
+		}
+		
+		/**
+		 * Gets the object of the old list.
+		 * 
+		 * @return
+		 * 		the old object
+		 */
+		public E getOldValue() {
+			return this.oldValue;
+		}
+		
+		/**
+		 * Gets the object of the new list.
+		 * 
+		 * @return
+		 * 		the new object
+		 */
+		public E getNewValue() {
+			return this.newValue;
+		}
+		
+		/**
+		 * Gets all properties whose values are different.
+		 * 
+		 * @return
+		 * 		the changed properties
+		 */
+		public EnumSet<P> getChangedProperties() {
+			return this.changedProperties;
+		}
+		
+		@Override
+		public String toString() {
+			return this.changedProperties.toString();
+		}
+	}
+	
+	private final List<E> added;
+	private final List<E> removed;
+	private final List<Change<P,E>> changed;
+	private final int unchangedCount;
+	
+	public PropertyAwareDiff(List<E> added, List<E> removed, List<Change<P,E>> changed, int unchangedCount) {
+		this.added = Collections.unmodifiableList(added);
+		this.removed = Collections.unmodifiableList(removed);
+		this.changed = Collections.unmodifiableList(changed);
+		this.unchangedCount = unchangedCount;
+	}
+	
+	/**
+	 * Gets the objects only contained in the new list.
+	 * 
+	 * @return
+	 * 		the added objects, in the order of the new list
+	 */
+	public List<E> getAdded() {
+		return this.added;
+	}
+	
+	/**
+	 * Gets the objects only contained in the old list.
+	 * 
+	 * @return
+	 * 		the removed objects, in the order of the old list
+	 */
+	public List<E> getRemoved() {
+		return this.removed;
+	}
+	
+	/**
+	 * Gets the objects contained in both lists with different property values.
+	 * 
+	 * @return
+	 * 		the changed objects, in the order of the new list
+	 */
+	public List<Change<P,E>> getChanged() {
+		return this.changed;
+	}
+	
+	/**
+	 * Gets the amount of objects contained in both lists with equal property values.
+	 * 
+	 * @return
+	 * 		the amount of unchanged objects
+	 */
+	public int getUnchangedCount() {
+		return this.unchangedCount;
+	}
+	
+	/**
+	 * Checks if both lists are equal.
+	 * 
+	 * @return
+	 * 		{@code true} if no objects were added, removed or changed
+	 */
+	public boolean isEmpty() {
+		return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+	}
+	
+	@Override
+	public String toString() {
+		return String.format(
+			"%d added, %d removed, %d changed, %d unchanged",
+			this.added.size(), this.removed.size(), this.changed.size(), this.unchangedCount
+		);
+	}
+}
@@ -22,12 +22,17 @@ package org.jmythapi.protocol.utils;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
 
 import org.jmythapi.IPropertyAware;
 import org.jmythapi.protocol.response.IFilter;
+import org.jmythapi.utils.ParallelUtils;
+import org.jmythapi.utils.ParallelUtils.IRangeProcessor;
 
 public class PropertyAwareUtils {
 	/**
@@ -74,12 +79,56 @@ public class PropertyAwareUtils {
 		return groupListByProperty(list, prop, null);
 	}
 		
+	/**
+	 * Groups the given list of objects by the specified property.
+	 * Only objects matching the given filter are returned.
+	 * <p>
+	 * If the given list is a {@link RandomAccess random-access} list larger than {@link ParallelUtils#PARALLEL_THRESHOLD},
+	 * the list is split into multiple ranges, which are grouped in parallel. The entries of each group have the same order 
+	 * as in the given list. In this case the filter is called concurrently by multiple threads.
+	 * 
+	 * @param list
+	 * 		A list of property-aware objects
+	 * @param prop
+	 * 		The property to use for grouping
+	 * @param filter
+	 * 		the filter to use or {@code null}
+	 * @return
+	 * 		the grouped lists
+	 */
 	public static <P extends Enum<P>, E extends IPropertyAware<P>> Map<Object, List<E>> groupListByProperty(
-		Iterable<E> list, P prop, IFilter<P,E> filter
+		Iterable<E> list, final P prop, final IFilter<P,E> filter
 	) {
 		if(prop == null) return Collections.emptyMap();
 		else if(list == null) return Collections.emptyMap();
 		
+		if(list instanceof List && list instanceof RandomAccess && ParallelUtils.isParallel(((List<E>)list).size())) {
+			final List<E> randomAccessList = (List<E>) list;
+			return ParallelUtils.invoke(randomAccessList.size(), new IRangeProcessor<Map<Object,List<E>>>() {
+				public Map<Object, List<E>> process(int fromIdx, int toIdx) {
+					return groupSequentially(randomAccessList.subList(fromIdx, toIdx), prop, filter);
+				}
+				
+				public Map<Object, List<E>> merge(Map<Object, List<E>> left, Map<Object, List<E>> right) {
+					for(Entry<Object,List<E>> entry : right.entrySet()) {
+						final List<E> leftEntities = left.get(entry.getKey());
+						if(leftEntities == null) {
+							left.put(entry.getKey(), entry.getValue());
+						} else {
+							leftEntities.addAll(entry.getValue());
+						}
+					}
+					return left;
+				}
+			});
+		}
+		
+		return groupSequentially(list, prop, filter);
+	}
+	
+	private static <P extends Enum<P>, E extends IPropertyAware<P>> Map<Object, List<E>> groupSequentially(
+		Iterable<E> list, P prop, IFilter<P,E> filter
+	) {
 		final HashMap<Object,List<E>> entityMap = new HashMap<Object, List<E>>();
 		for(E entity : list) {
 			// skipping objects not matching the filter
@@ -168,4 +217,178 @@ public class PropertyAwareUtils {
 		
 		return diffMap;
 	}
+	
+	/**
+	 * Compares the unparsed property values of two property-aware objects.
+	 * <p>
+	 * In contrast to {@link #compare(IPropertyAware, IPropertyAware)} the property values are not decoded. 
+	 * If both objects have the same amount of properties, the values are compared by position. Otherwise,
+	 * e.g. if the objects were created with different protocol versions, the values are compared by property.
+	 * 
+	 * @param <P>
+	 * 		the type of the property
+	 * @param source
+	 * 		the source object
+	 * @param target
+	 * 		the target object
+	 * @return
+	 * 		all properties whose unparsed values are different
+	 */
+	public static <P extends Enum<P>> EnumSet<P> compareRaw(IPropertyAware<P> source, IPropertyAware<P> target) {
+		if(source == null || target == null) return null;
+		final EnumSet<P> changed = EnumSet.noneOf(source.getPropertyClass());
+		
+		final List<String> sourceValues = source.getPropertyValues();
+		final List<String> targetValues = target.getPropertyValues();
+		if(sourceValues != null && targetValues != null && sourceValues.size() == targetValues.size()) {
+			for(int i=0; i < sourceValues.size(); i++) {
+				if(!equals(sourceValues.get(i),targetValues.get(i))) {
+					changed.add(source.getProperty(i));
+				}
+			}
+		} else {
+			for(P prop : source.getProperties()) {
+				if(!equals(source.getPropertyValue(prop),target.getPropertyValue(prop))) {
+					changed.add(prop);
+				}
+			}
+		}
+		return changed;
+	}
+	
+	private static boolean equals(String value1, String value2) {
+		return (value1 == null) ? value2 == null : value1.equals(value2);
+	}
+	
+	/**
+	 * Determines the differences between two lists of property-aware objects.
+	 * <p>
+	 * The objects of both lists are matched by the unparsed values of the given key properties, using a hash join.
+	 * Matched objects are compared using {@link #compareRaw(IPropertyAware, IPropertyAware)}. Therefore no property 
+	 * values are decoded, and the runtime is linear in the size of both lists.
+	 * <p>
+	 * If multiple objects of a list have the same key, they are matched in list order. 
+	 * 
+	 * <h4>Usage Example:</h4>
+	 * 
+	 * {@mythCodeExample <pre>
+	 *    IProgramInfoList oldRecordings = backend.queryRecordings();
+	 *    // later ...
+	 *    IProgramInfoList newRecordings = backend.queryRecordings();
+	 *    
+	 *    PropertyAwareDiff&lt;IProgramInfo.Props,IProgramInfo&gt; diff = PropertyAwareUtils.diff(
+	 *       oldRecordings, newRecordings, 
+	 *       IProgramInfo.Props.CHANNEL_ID, IProgramInfo.Props.REC_START_TIME
+	 *    );
+	 *    for(PropertyAwareDiff.Change&lt;IProgramInfo.Props,IProgramInfo&gt; change : diff.getChanged()) &#123;
+	 *       System.out.println(String.format(
+	 *          "Recording '%s' changed: %s",
+	 *          change.getNewValue().getFullTitle(), change.getChangedProperties()
+	 *       ));
+	 *    &#125;
+	 * </pre> }
+	 * 
+	 * <h4>Protocol Version Hint:</h4>
+	 * The key values are compared unparsed. Both lists should therefore be received using the same protocol version.
+	 * 
+	 * @param <P>
+	 * 		the type of the property
+	 * @param <E>
+	 * 		the type of the objects
+	 * @param oldList
+	 * 		the old objects
+	 * @param newList
+	 * 		the new objects
+	 * @param keyProps
+	 * 		the properties identifying an object
+	 * @return
+	 * 		the added, removed and changed objects
+	 */
+	@SafeVarargs
+	public static <P extends Enum<P>, E extends IPropertyAware<P>> PropertyAwareDiff<P,E> diff(
+		Iterable<E> oldList, Iterable<E> newList, P... keyProps
+	) {
+		if(keyProps == null || keyProps.length == 0) throw new IllegalArgumentException("No key properties specified");
+		
+		// copy the key properties, the varargs array itself must not escape this method
+		final List<P> keys = new ArrayList<P>(keyProps.length);
+		for(P keyProp : keyProps) keys.add(keyProp);
+		
+		// build the hash table of the old objects
+		final ArrayList<E> oldObjects = new ArrayList<E>();
+		if(oldList != null) {
+			for(E entity : oldList) oldObjects.add(entity);
+		}
+		
+		/*
+		 * Objects with the same key are chained: the map contains the index of the 
+		 * first unmatched object, nextIndex the index of the following object or -1.
+		 */
+		final HashMap<String,Integer> firstIndex = new HashMap<String,Integer>(oldObjects.size() * 2);
+		final int[] nextIndex = new int[oldObjects.size()];
+		final int[] lastIndex = new int[oldObjects.size()];
+		for(int i=0; i < oldObjects.size(); i++) {
+			nextIndex[i] = -1;
+			final String key = getKey(oldObjects.get(i), keys);
+			final Integer first = firstIndex.get(key);
+			if(first == null) {
+				firstIndex.put(key, Integer.valueOf(i));
+				lastIndex[i] = i;
+			} else {
+				nextIndex[lastIndex[first.intValue()]] = i;
+				lastIndex[first.intValue()] = i;
+			}
+		}
+		
+		// probe with the new objects
+		final boolean[] matched = new boolean[oldObjects.size()];
+		final ArrayList<E> added = new ArrayList<E>();
+		final ArrayList<PropertyAwareDiff.Change<P,E>> changed = new ArrayList<PropertyAwareDiff.Change<P,E>>();
+		int unchangedCount = 0;
+		if(newList != null) {
+			for(E entity : newList) {
+				final String key = getKey(entity, keys);
+				final Integer first = firstIndex.get(key);
+				if(first == null) {
+					added.add(entity);
+					continue;
+				}
+				
+				final int idx = first.intValue();
+				matched[idx] = true;
+				if(nextIndex[idx] == -1) {
+					firstIndex.remove(key);
+				} else {
+					lastIndex[nextIndex[idx]] = lastIndex[idx];
+					firstIndex.put(key, Integer.valueOf(nextIndex[idx]));
+				}
+				
+				final E oldEntity = oldObjects.get(idx);
+				final EnumSet<P> changedProps = compareRaw(oldEntity, entity);
+				if(changedProps.isEmpty()) {
+					unchangedCount++;
+				} else {
+					changed.add(new PropertyAwareDiff.Change<P,E>(oldEntity, entity, changedProps));
+				}
+			}
+		}
+		
+		final ArrayList<E> removed = new ArrayList<E>();
+		for(int i=0; i < oldObjects.size(); i++) {
+			if(!matched[i]) removed.add(oldObjects.get(i));
+		}
+		
+		return new PropertyAwareDiff<P,E>(added, removed, changed, unchangedCount);
+	}
+	
+	private static <P extends Enum<P>> String getKey(IPropertyAware<P> entity, List<P> keyProps) {
+		if(keyProps.size() == 1) return entity.getPropertyValue(keyProps.get(0));
+		
+		final StringBuilder key = new StringBuilder();
+		for(int i=0; i < keyProps.size(); i++) {
+			if(i > 0) key.append('\u0000');
+			key.append(entity.getPropertyValue(keyProps.get(i)));
+		}
+		return key.toString();
+	}
 }
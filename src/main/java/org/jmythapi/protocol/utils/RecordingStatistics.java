@@ -0,0 +1,582 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.utils;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.jmythapi.protocol.IBackend;
+import org.jmythapi.protocol.events.IMythEventListener;
+import org.jmythapi.protocol.events.IRecordingListChangeDelete;
+import org.jmythapi.protocol.events.IRecordingListChangeUpdate;
+import org.jmythapi.protocol.events.IUpdateFileSize;
+import org.jmythapi.protocol.response.IProgramInfo;
+import org.jmythapi.protocol.response.IProgramInfoList;
+
+/**
+ * Incrementally maintained statistics about a set of recordings.
+ * <p>
+ * {@link IProgramInfoList#getTotalFilesSize()}, {@link IProgramInfoList#getTotalDuration()} and 
+ * {@link IProgramInfoList#groupBy(IProgramInfo.Props)} scan and decode the whole list on each call.
+ * This class instead decodes each recording only once, when it is added, and maintains running totals 
+ * and per group aggregates. Afterwards the statistics can be read without rescanning the recordings:
+ * <ul>
+ * 	<li>the amount of recordings and their total file size and duration</li>
+ * 	<li>the amount and file size of recordings per recording group</li>
+ * 	<li>the amount and file size of recordings per title</li>
+ * 	<li>the amount and file size of recordings per storage group</li>
+ * </ul>
+ * The statistics are updated using {@link #add(IProgramInfo)}, {@link #remove(String)} and 
+ * {@link #updateFileSize(String, long)}. If the statistics are {@link #attach(IBackend) attached} to a backend,
+ * they are updated automatically on recording-list-change and file-size events.
+ * <p>
+ * This class is thread-safe.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    RecordingStatistics stats = RecordingStatistics.valueOf(backend.queryRecordings());
+ *    stats.attach(backend);
+ *    
+ *    // later ...
+ *    if(stats.isStale()) stats.reset(backend.queryRecordings());
+ *    System.out.println(String.format(
+ *       "%d recordings, %d bytes, %d bytes in group 'Default'",
+ *       stats.size(), stats.getTotalFileSize(), stats.getRecordingGroupFileSize("Default")
+ *    ));
+ * </pre>}
+ */
+public class RecordingStatistics {
+	/**
+	 * The decoded values of a single recording.
+	 */
+	private static final class Entry {
+		final String recordingGroup;
+		final String title;
+		final String storageGroup;
+		
+		/**
+		 * The file size or {@code 0} if unknown.
+		 */
+		final long fileSize;
+		
+		/**
+		 * The start and end time in seconds since the epoch or {@code -1} if unknown.
+		 */
+		final long startTime;
+		final long endTime;
+		
+		Entry(String recordingGroup, String title, String storageGroup, long fileSize, long startTime, long endTime) {
+			this.recordingGroup = recordingGroup;
+			this.title = title;
+			this.storageGroup = storageGroup;
+			this.fileSize = fileSize;
+			this.startTime = startTime;
+			this.endTime = endTime;
+		}
+		
+		Entry withFileSize(long fileSize) {
+			return new Entry(this.recordingGroup, this.title, this.storageGroup, fileSize, this.startTime, this.endTime);
+		}
+		
+		/**
+		 * The duration in minutes, see {@link IProgramInfoList#getTotalDuration()}.
+		 */
+		long getDuration(long now) {
+			if (this.startTime == -1 || this.startTime > now) return 0;
+			final long end = (this.endTime == -1) ? now : Math.min(this.endTime, now);
+			return (end - this.startTime) / 60;
+		}
+		
+		boolean isFinished(long now) {
+			return this.startTime == -1 || (this.endTime != -1 && this.endTime <= now);
+		}
+	}
+	
+	/**
+	 * The amount and total file size of the recordings of a group.
+	 * <p>
+	 * Stored as {@code long[] {count, fileSize}}.
+	 */
+	private static final int COUNT = 0;
+	private static final int FILE_SIZE = 1;
+	
+	/**
+	 * All recordings by {@link IProgramInfo#getUniqueRecordingId() unique recording id}.
+	 */
+	private final Map<String,Entry> recordings = new HashMap<String,Entry>();
+	
+	/**
+	 * Recordings not finished when they were added. Their duration still depends on the current time.
+	 */
+	private final Map<String,Entry> unfinished = new HashMap<String,Entry>();
+	
+	private final Map<String,long[]> recordingGroups = new HashMap<String,long[]>();
+	private final Map<String,long[]> titles = new HashMap<String,long[]>();
+	private final Map<String,long[]> storageGroups = new HashMap<String,long[]>();
+	
+	private long totalFileSize = 0;
+	
+	/**
+	 * The total duration of all finished recordings, in minutes.
+	 */
+	private long finishedDuration = 0;
+	
+	/**
+	 * {@code true} if the backend has signaled that the recording list has changed completely.
+	 */
+	private volatile boolean stale = false;
+	
+	/**
+	 * The backend the statistics are attached to.
+	 */
+	private IBackend backend;
+	private IMythEventListener<IRecordingListChangeUpdate> updateListener;
+	private IMythEventListener<IRecordingListChangeDelete> deleteListener;
+	@SuppressWarnings("deprecation")
+	private IMythEventListener<org.jmythapi.protocol.events.IRecordingListChangeList> listListener;
+	private IMythEventListener<IUpdateFileSize> fileSizeListener;
+	
+	/**
+	 * Creates empty statistics.
+	 */
+	public RecordingStatistics() {
+	}
+	
+	/**
+	 * Creates the statistics for the given recordings.
+	 * 
+	 * @param recordings
+	 * 		the recordings, e.g. as returned by {@link IBackend#queryRecordings()}
+	 * @return
+	 * 		the statistics
+	 */
+	public static RecordingStatistics valueOf(Iterable<IProgramInfo> recordings) {
+		final RecordingStatistics statistics = new RecordingStatistics();
+		statistics.reset(recordings);
+		return statistics;
+	}
+	
+	/* ======================================================================
+	 * Updating the statistics
+	 * ====================================================================== */
+	
+	/**
+	 * Replaces all recordings of the statistics.
+	 * <p>
+	 * This also clears the {@link #isStale() stale} flag.
+	 * 
+	 * @param recordings
+	 * 		the new recordings or {@code null}
+	 */
+	public synchronized void reset(Iterable<IProgramInfo> recordings) {
+		this.recordings.clear();
+		this.unfinished.clear();
+		this.recordingGroups.clear();
+		this.titles.clear();
+		this.storageGroups.clear();
+		this.totalFileSize = 0;
+		this.finishedDuration = 0;
+		this.stale = false;
+		
+		if (recordings == null) return;
+		for (IProgramInfo recording : recordings) {
+			this.add(recording);
+		}
+	}
+	
+	/**
+	 * Adds a recording to the statistics.
+	 * <p>
+	 * If a recording with the same {@link IProgramInfo#getUniqueRecordingId() unique recording id} is already 
+	 * contained, it is replaced.
+	 * 
+	 * @param recording
+	 * 		the new or changed recording
+	 */
+	public synchronized void add(IProgramInfo recording) {
+		if (recording == null) return;
+		
+		final String uniqueId = recording.getUniqueRecordingId();
+		if (uniqueId == null) return;
+		
+		final Long fileSize = recording.getFileSize();
+		final Date start = recording.getStartDateTime();
+		final Date end = recording.getEndDateTime();
+		this.put(uniqueId, new Entry(
+			recording.getRecordingGroup(),
+			recording.getTitle(),
+			recording.getStorageGroup(),
+			(fileSize == null || fileSize.longValue() <= 0) ? 0 : fileSize.longValue(),
+			(start == null) ? -1 : start.getTime() / 1000,
+			(end == null) ? -1 : end.getTime() / 1000
+		));
+	}
+	
+	/**
+	 * Removes a recording from the statistics.
+	 * 
+	 * @param uniqueRecordingId
+	 * 		the {@link IProgramInfo#getUniqueRecordingId() unique recording id}
+	 * @return
+	 * 		{@code true} if the recording was contained
+	 */
+	public synchronized boolean remove(String uniqueRecordingId) {
+		if (uniqueRecordingId == null) return false;
+		
+		final Entry entry = this.recordings.remove(uniqueRecordingId);
+		if (entry == null) return false;
+		
+		this.subtract(entry, uniqueRecordingId);
+		return true;
+	}
+	
+	/**
+	 * Changes the file size of a recording.
+	 * 
+	 * @param uniqueRecordingId
+	 * 		the {@link IProgramInfo#getUniqueRecordingId() unique recording id}
+	 * @param fileSize
+	 * 		the new file size
+	 * @return
+	 * 		{@code true} if the recording was contained
+	 */
+	public synchronized boolean updateFileSize(String uniqueRecordingId, long fileSize) {
+		if (uniqueRecordingId == null) return false;
+		
+		final Entry entry = this.recordings.get(uniqueRecordingId);
+		if (entry == null) return false;
+		
+		this.put(uniqueRecordingId, entry.withFileSize(Math.max(0, fileSize)));
+		return true;
+	}
+	
+	private void put(String uniqueId, Entry entry) {
+		final Entry oldEntry = this.recordings.put(uniqueId, entry);
+		if (oldEntry != null) this.subtract(oldEntry, uniqueId);
+		
+		this.totalFileSize += entry.fileSize;
+		adjust(this.recordingGroups, entry.recordingGroup, 1, entry.fileSize);
+		adjust(this.titles, entry.title, 1, entry.fileSize);
+		adjust(this.storageGroups, entry.storageGroup, 1, entry.fileSize);
+		
+		final long now = System.currentTimeMillis() / 1000;
+		if (entry.isFinished(now)) {
+			this.finishedDuration += entry.getDuration(now);
+		} else {
+			this.unfinished.put(uniqueId, entry);
+		}
+	}
+	
+	private void subtract(Entry entry, String uniqueId) {
+		this.totalFileSize -= entry.fileSize;
+		adjust(this.recordingGroups, entry.recordingGroup, -1, -entry.fileSize);
+		adjust(this.titles, entry.title, -1, -entry.fileSize);
+		adjust(this.storageGroups, entry.storageGroup, -1, -entry.fileSize);
+		
+		if (this.unfinished.remove(uniqueId) == null) {
+			// the duration was added to the finished duration with the time the entry was added
+			this.finishedDuration -= entry.getDuration(Long.MAX_VALUE);
+		}
+	}
+	
+	private static void adjust(Map<String,long[]> groups, String group, long count, long fileSize) {
+		long[] values = groups.get(group);
+		if (values == null) {
+			values = new long[2];
+			groups.put(group, values);
+		}
+		
+		values[COUNT] += count;
+		values[FILE_SIZE] += fileSize;
+		if (values[COUNT] <= 0) groups.remove(group);
+	}
+	
+	/* ======================================================================
+	 * Event handling
+	 * ====================================================================== */
+	
+	/**
+	 * Updates the statistics automatically on backend events.
+	 * <p>
+	 * The following events are handled:
+	 * <ul>
+	 * 	<li>{@link IRecordingListChangeUpdate}: the contained recording is added or replaced</li>
+	 * 	<li>{@link IRecordingListChangeDelete}: the recording is removed</li>
+	 * 	<li>{@link IUpdateFileSize}: the file size of the recording is changed</li>
+	 * 	<li>{@link org.jmythapi.protocol.events.IRecordingListChangeList}: the statistics are marked as {@link #isStale() stale}</li>
+	 * </ul>
+	 * A {@link org.jmythapi.protocol.events.IRecordingListChangeAdd} event does not contain the new recording. 
+	 * The backend sends the recording with an update event afterwards.
+	 * <p>
+	 * Event listening must be enabled on the backend connection.
+	 * 
+	 * @param backend
+	 * 		the backend to receive events from
+	 */
+	@SuppressWarnings("deprecation")
+	public synchronized void attach(IBackend backend) {
+		if (backend == null) throw new NullPointerException("The backend must not be null");
+		this.detach();
+		
+		this.updateListener = new IMythEventListener<IRecordingListChangeUpdate>() {
+			public void fireEvent(IRecordingListChangeUpdate event) {
+				add(event.getProgramInfo());
+			}
+		};
+		this.deleteListener = new IMythEventListener<IRecordingListChangeDelete>() {
+			public void fireEvent(IRecordingListChangeDelete event) {
+				remove(event.getUniqueRecordingID());
+			}
+		};
+		this.listListener = new IMythEventListener<org.jmythapi.protocol.events.IRecordingListChangeList>() {
+			public void fireEvent(org.jmythapi.protocol.events.IRecordingListChangeList event) {
+				stale = true;
+			}
+		};
+		this.fileSizeListener = new IMythEventListener<IUpdateFileSize>() {
+			public void fireEvent(IUpdateFileSize event) {
+				final Long fileSize = event.getRecordingFileSize();
+				if (fileSize != null) updateFileSize(event.getUniqueRecordingID(), fileSize.longValue());
+			}
+		};
+		
+		this.backend = backend;
+		backend.addEventListener(IRecordingListChangeUpdate.class, this.updateListener);
+		backend.addEventListener(IRecordingListChangeDelete.class, this.deleteListener);
+		backend.addEventListener(org.jmythapi.protocol.events.IRecordingListChangeList.class, this.listListener);
+		backend.addEventListener(IUpdateFileSize.class, this.fileSizeListener);
+	}
+	
+	/**
+	 * Stops updating the statistics on backend events.
+	 * 
+	 * @see #attach(IBackend)
+	 */
+	@SuppressWarnings("deprecation")
+	public synchronized void detach() {
+		if (this.backend == null) return;
+		
+		this.backend.removeEventListener(IRecordingListChangeUpdate.class, this.updateListener);
+		this.backend.removeEventListener(IRecordingListChangeDelete.class, this.deleteListener);
+		this.backend.removeEventListener(org.jmythapi.protocol.events.IRecordingListChangeList.class, this.listListener);
+		this.backend.removeEventListener(IUpdateFileSize.class, this.fileSizeListener);
+		this.backend = null;
+	}
+	
+	/**
+	 * Checks if the backend has signaled that the whole recording list has changed.
+	 * <p>
+	 * The statistics should be {@link #reset(Iterable) reset} with the current recordings in this case.
+	 * 
+	 * @return
+	 * 		{@code true} if the statistics may be outdated
+	 */
+	public boolean isStale() {
+		return this.stale;
+	}
+	
+	/* ======================================================================
+	 * Reading the statistics
+	 * ====================================================================== */
+	
+	/**
+	 * Gets the amount of recordings.
+	 * 
+	 * @return
+	 * 		the amount of recordings
+	 */
+	public synchronized int size() {
+		return this.recordings.size();
+	}
+	
+	/**
+	 * Gets the total file size of all recordings.
+	 * 
+	 * @return
+	 * 		the total file size in bytes
+	 * @see IProgramInfoList#getTotalFilesSize()
+	 */
+	public synchronized long getTotalFileSize() {
+		return this.totalFileSize;
+	}
+	
+	/**
+	 * Gets the total duration of all recordings.
+	 * <p>
+	 * Only the recordings not finished when they were added are checked against the current time.
+	 * 
+	 * @return
+	 * 		the total duration in minutes
+	 * @see IProgramInfoList#getTotalDuration()
+	 */
+	public synchronized long getTotalDuration() {
+		final long now = System.currentTimeMillis() / 1000;
+		
+		long unfinishedDuration = 0;
+		final Iterator<Entry> iter = this.unfinished.values().iterator();
+		while (iter.hasNext()) {
+			final Entry entry = iter.next();
+			if (entry.isFinished(now)) {
+				// the recording has finished in the meantime
+				this.finishedDuration += entry.getDuration(now);
+				iter.remove();
+			} else {
+				unfinishedDuration += entry.getDuration(now);
+			}
+		}
+		return this.finishedDuration + unfinishedDuration;
+	}
+	
+	/**
+	 * Gets the amount of recordings of a recording group.
+	 * 
+	 * @param recordingGroup
+	 * 		the recording group
+	 * @return
+	 * 		the amount of recordings
+	 */
+	public synchronized int getRecordingGroupCount(String recordingGroup) {
+		return (int) get(this.recordingGroups, recordingGroup, COUNT);
+	}
+	
+	/**
+	 * Gets the total file size of the recordings of a recording group.
+	 * 
+	 * @param recordingGroup
+	 * 		the recording group
+	 * @return
+	 * 		the total file size in bytes
+	 */
+	public synchronized long getRecordingGroupFileSize(String recordingGroup) {
+		return get(this.recordingGroups, recordingGroup, FILE_SIZE);
+	}
+	
+	/**
+	 * Gets the amount of recordings per recording group.
+	 * 
+	 * @return
+	 * 		the amount of recordings by recording group
+	 */
+	public synchronized Map<String,Integer> getRecordingGroupCounts() {
+		return toCountMap(this.recordingGroups);
+	}
+	
+	/**
+	 * Gets the amount of recordings with the given title.
+	 * 
+	 * @param title
+	 * 		the title
+	 * @return
+	 * 		the amount of recordings
+	 */
+	public synchronized int getTitleCount(String title) {
+		return (int) get(this.titles, title, COUNT);
+	}
+	
+	/**
+	 * Gets the total file size of the recordings with the given title.
+	 * 
+	 * @param title
+	 * 		the title
+	 * @return
+	 * 		the total file size in bytes
+	 */
+	public synchronized long getTitleFileSize(String title) {
+		return get(this.titles, title, FILE_SIZE);
+	}
+	
+	/**
+	 * Gets the total file size of the recordings per title.
+	 * 
+	 * @return
+	 * 		the total file size in bytes by title
+	 */
+	public synchronized Map<String,Long> getTitleFileSizes() {
+		return toFileSizeMap(this.titles);
+	}
+	
+	/**
+	 * Gets the amount of recordings of a storage group.
+	 * 
+	 * @param storageGroup
+	 * 		the storage group
+	 * @return
+	 * 		the amount of recordings
+	 */
+	public synchronized int getStorageGroupCount(String storageGroup) {
+		return (int) get(this.storageGroups, storageGroup, COUNT);
+	}
+	
+	/**
+	 * Gets the total file size of the recordings of a storage group.
+	 * 
+	 * @param storageGroup
+	 * 		the storage group
+	 * @return
+	 * 		the total file size in bytes
+	 */
+	public synchronized long getStorageGroupFileSize(String storageGroup) {
+		return get(this.storageGroups, storageGroup, FILE_SIZE);
+	}
+	
+	/**
+	 * Gets the total file size of the recordings per storage group.
+	 * 
+	 * @return
+	 * 		the total file size in bytes by storage group
+	 */
+	public synchronized Map<String,Long> getStorageGroupFileSizes() {
+		return toFileSizeMap(this.storageGroups);
+	}
+	
+	private static long get(Map<String,long[]> groups, String group, int field) {
+		final long[] values = groups.get(group);
+		return (values == null) ? 0 : values[field];
+	}
+	
+	private static Map<String,Integer> toCountMap(Map<String,long[]> groups) {
+		final Map<String,Integer> result = new HashMap<String,Integer>(groups.size() * 2);
+		for (Map.Entry<String,long[]> group : groups.entrySet()) {
+			result.put(group.getKey(), Integer.valueOf((int) group.getValue()[COUNT]));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+	
+	private static Map<String,Long> toFileSizeMap(Map<String,long[]> groups) {
+		final Map<String,Long> result = new HashMap<String,Long>(groups.size() * 2);
+		for (Map.Entry<String,long[]> group : groups.entrySet()) {
+			result.put(group.getKey(), Long.valueOf(group.getValue()[FILE_SIZE]));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return String.format(
+			"%d recordings, %d bytes, %d recording groups, %d titles, %d storage groups",
+			this.recordings.size(), this.totalFileSize, 
+			this.recordingGroups.size(), this.titles.size(), this.storageGroups.size()
+		);
+	}
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.jmythapi.impl.CopyOnWriteArgumentList;
+import org.jmythapi.impl.CopyOnWriteArgumentList.IArgumentSource;
+import org.jmythapi.protocol.IMythPacket;
+import org.jmythapi.protocol.ISendable;
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.impl.MythPacket;
+import org.jmythapi.protocol.response.IMythResponse;
+import org.jmythapi.protocol.response.impl.AMythResponse;
+
+/**
+ * This class provides functions to store responses in a compact binary snapshot file.
+ * <p>
+ * Fetching large responses, e.g. the list of all recordings, from the backend may take a long time.
+ * A snapshot allows to store such a response locally and to reload it later without contacting the backend.
+ * <p>
+ * Reloading a snapshot memory-maps the file. The response arguments are not decoded up front, instead each
+ * argument is decoded on first access. Reloading therefore only takes a few milliseconds, regardless of the 
+ * size of the response.
+ * 
+ * <h3>Snapshot format:</h3>
+ * All numbers are stored as big-endian 32 bit integers.
+ * <ol>
+ * 	<li>The magic number {@code 0x4A4D5353}</li>
+ * 	<li>The format version, currently {@code 1}</li>
+ * 	<li>The {@link ProtocolVersion#getVersion() protocol version} of the response</li>
+ * 	<li>The amount of arguments</li>
+ * 	<li>Each argument as the length of its UTF-8 encoded value followed by the value bytes. 
+ *      {@code null} arguments have the length {@code -1}.</li>
+ * 	<li>The file position of each argument</li>
+ * </ol>
+ * 
+ * <h3>Usage example:</h3>
+ * 
+ * {@mythCodeExample <pre>
+ *    // storing all recordings
+ *    IProgramInfoList recordings = backend.queryRecordings();
+ *    SnapshotUtils.writeTo((ISendable) recordings, new File("recordings.snapshot"));
+ *    
+ *    // reloading the recordings, e.g. after a restart
+ *    ProgramInfoList reloaded = SnapshotUtils.readFrom(ProgramInfoList.class, new File("recordings.snapshot"));
+ * </pre>}
+ */
+public class SnapshotUtils {
+	/**
+	 * The magic number of snapshot files.
+	 */
+	public static final int MAGIC = 0x4A4D5353;
+	
+	/**
+	 * The current version of the snapshot format.
+	 */
+	public static final int FORMAT_VERSION = 1;
+	
+	/**
+	 * The size of the file header.
+	 */
+	private static final int HEADER_SIZE = 16;
+	
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	/**
+	 * Writes a snapshot of the given response to a file.
+	 * 
+	 * @param response
+	 * 		the response to store
+	 * @param file
+	 * 		the target file. An existing file is overwritten.
+	 * @throws IOException
+	 * 		on write errors
+	 */
+	public static void writeTo(ISendable response, File file) throws IOException {
+		if (file == null) throw new NullPointerException("The file must not be null");
+		
+		final OutputStream output = new FileOutputStream(file);
+		try {
+			writeTo(response, output);
+		} finally {
+			output.close();
+		}
+	}
+	
+	/**
+	 * Writes a snapshot of the given response to a stream.
+	 * 
+	 * @param response
+	 * 		the response to store
+	 * @param output
+	 * 		the target stream. The stream is flushed but not closed.
+	 * @throws IOException
+	 * 		on write errors
+	 */
+	public static void writeTo(ISendable response, OutputStream output) throws IOException {
+		if (response == null) throw new NullPointerException("The response must not be null");
+		else if (output == null) throw new NullPointerException("The output-stream is null");
+		
+		final IMythPacket packet = response.getPacket();
+		final List<String> args = packet.getPacketArgs();
+		final int argCount = args.size();
+		
+		final DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(output, 65536));
+		dataOutput.writeInt(MAGIC);
+		dataOutput.writeInt(FORMAT_VERSION);
+		dataOutput.writeInt(packet.getVersionNr().getVersion());
+		dataOutput.writeInt(argCount);
+		
+		// writing the arguments
+		final int[] positions = new int[argCount];
+		long position = HEADER_SIZE;
+		for (int i = 0; i < argCount; i++) {
+			if (position > Integer.MAX_VALUE) throw new IOException("The response is too large for a snapshot.");
+			positions[i] = (int) position;
+			
+			final String arg = args.get(i);
+			if (arg == null) {
+				dataOutput.writeInt(-1);
+				position += 4;
+			} else {
+				final byte[] bytes = arg.getBytes(UTF8);
+				dataOutput.writeInt(bytes.length);
+				dataOutput.write(bytes);
+				position += 4 + bytes.length;
+			}
+		}
+		
+		// writing the argument positions
+		if (position + 4L * argCount > Integer.MAX_VALUE) throw new IOException("The response is too large for a snapshot.");
+		for (int i = 0; i < argCount; i++) {
+			dataOutput.writeInt(positions[i]);
+		}
+		dataOutput.flush();
+	}
+	
+	/**
+	 * Reloads a response from a snapshot file.
+	 * <p>
+	 * The file is memory-mapped and the response arguments are decoded on first access.
+	 * The file must not be changed while the returned response is in use.
+	 * 
+	 * @param <E> 
+	 * 		the type of the response object properties
+	 * @param <Resp> 
+	 * 		the type of the response object
+	 * @param respClass
+	 * 		the class of the response object
+	 * @param file
+	 * 		the snapshot file
+	 * @return
+	 * 		the reloaded response
+	 * @throws IOException
+	 * 		if the file could not be read or is not a valid snapshot
+	 * @see ResponseUtils#readFrom(Class, IMythPacket)
+	 */
+	public static <E extends Enum<E>, Resp extends AMythResponse<E> & IMythResponse<E>> Resp readFrom(
+		Class<Resp> respClass, File file
+	) throws IOException {
+		if (respClass == null) throw new NullPointerException("The response class must not be null");
+		
+		final IMythPacket packet = readPacket(file);
+		final Resp response = ResponseUtils.readFrom(respClass, packet);
+		if (response == null) {
+			throw new IOException(String.format("Unable to create a response object '%s' from snapshot '%s'.", respClass, file));
+		}
+		return response;
+	}
+	
+	/**
+	 * Reloads the packet stored in a snapshot file.
+	 * <p>
+	 * The file is memory-mapped and the packet arguments are decoded on first access.
+	 * 
+	 * @param file
+	 * 		the snapshot file
+	 * @return
+	 * 		the packet
+	 * @throws IOException
+	 * 		if the file could not be read or is not a valid snapshot
+	 */
+	public static IMythPacket readPacket(File file) throws IOException {
+		if (file == null) throw new NullPointerException("The file must not be null");
+		
+		final ByteBuffer buffer;
+		final RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			final FileChannel channel = input.getChannel();
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException(String.format("The file '%s' is not a valid snapshot.", file));
+			}
+			
+			// the mapping remains valid after closing the file
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			input.close();
+		}
+		
+		// reading the header
+		if (buffer.getInt(0) != MAGIC) {
+			throw new IOException(String.format("The file '%s' is not a valid snapshot.", file));
+		} else if (buffer.getInt(4) != FORMAT_VERSION) {
+			throw new IOException(String.format("The snapshot format version %d of file '%s' is not supported.", buffer.getInt(4), file));
+		}
+		
+		final ProtocolVersion protoVersion = ProtocolVersion.valueOf(buffer.getInt(8));
+		if (protoVersion == null) {
+			throw new IOException(String.format("The protocol version %d of snapshot '%s' is unknown.", buffer.getInt(8), file));
+		}
+		
+		final int argCount = buffer.getInt(12);
+		final int indexPosition = buffer.capacity() - 4 * argCount;
+		if (argCount <= 0 || indexPosition < HEADER_SIZE) {
+			throw new IOException(String.format("The file '%s' is not a valid snapshot.", file));
+		}
+		
+		final List<String> args = CopyOnWriteArgumentList.valueOf(argCount, new IArgumentSource() {
+			public String get(int index) {
+				final int position = buffer.getInt(indexPosition + 4 * index);
+				final int length = buffer.getInt(position);
+				if (length == -1) return null;
+				else if (length == 0) return "";
+				
+				final byte[] bytes = new byte[length];
+				final ByteBuffer value = buffer.duplicate();
+				value.position(position + 4);
+				value.get(bytes);
+				return new String(bytes, UTF8);
+			}
+		});
+		return new MythPacket(protoVersion, args);
+	}
+	
+	/**
+	 * This class should not be instantiated.
+	 */
+	private SnapshotUtils() {
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.utils;
+
+import java.nio.charset.Charset;
+
+/**
+ * A bounded cache to deduplicate strings while decoding packets.
+ * <p>
+ * Large responses contain the same values many times, e.g. host names, recording groups, storage groups,
+ * categories or channel signs. Without deduplication each occurrence is decoded into a separate string object.
+ * <p>
+ * This cache is looked up with the raw UTF-8 bytes of a value. If a string with the same bytes was decoded before, 
+ * the cached string is returned and no new string is created. Only short values are cached. 
+ * <p>
+ * The cache has a fixed amount of slots. Each value is stored in the slot determined by its hash code, replacing
+ * any previous value of this slot. Therefore the memory used by the cache is bounded, and rarely used values are
+ * dropped automatically.
+ * <p>
+ * This class is thread-safe. Concurrent lookups may replace each other's entries, which only reduces the hit rate.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    IBackendConnection connection = backend.getCommandConnection();
+ *    connection.setStringDeduplicator(new StringDeduplicator());
+ * </pre>}
+ *
+ * @see PacketUtils#readFrom(org.jmythapi.protocol.ProtocolVersion, java.io.InputStream, StringDeduplicator)
+ */
+public class StringDeduplicator {
+	/**
+	 * The default amount of cache slots.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The default maximum length of cached values in bytes.
+	 */
+	public static final int DEFAULT_MAX_LENGTH = 64;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * A cached string and its raw bytes.
+	 */
+	private static final class Entry {
+		final int hash;
+		final byte[] bytes;
+		final String value;
+
+		Entry(int hash, byte[] bytes, String value) {
+			this.hash = hash;
+			this.bytes = bytes;
+			this.value = value;
+		}
+	}
+
+	private final Entry[] entries;
+	private final int mask;
+	private final int maxLength;
+
+	/**
+	 * Creates a cache with {@link #DEFAULT_CAPACITY} slots, caching values up to {@link #DEFAULT_MAX_LENGTH} bytes.
+	 */
+	public StringDeduplicator() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+	}
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param capacity
+	 * 		the amount of cache slots. This value is rounded up to the next power of two.
+	 * @param maxLength
+	 * 		the maximum length in bytes of values to cache. Longer values, e.g. program descriptions,
+	 * 		are rarely repeated and therefore always decoded.
+	 */
+	public StringDeduplicator(int capacity, int maxLength) {
+		if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive");
+		if (maxLength < 0) throw new IllegalArgumentException("The maximum length must not be negative");
+
+		final int slots = Integer.highestOneBit(Math.min(capacity, 1 << 30));
+		this.entries = new Entry[slots < capacity ? slots << 1 : slots];
+		this.mask = this.entries.length - 1;
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Gets the string for the given UTF-8 encoded bytes.
+	 *
+	 * @param buf
+	 * 		the buffer containing the bytes
+	 * @param offset
+	 * 		the position of the first byte
+	 * @param length
+	 * 		the amount of bytes
+	 * @return
+	 * 		the cached string or a newly decoded string
+	 */
+	public String decode(byte[] buf, int offset, int length) {
+		if (length == 0) return "";
+		else if (length > this.maxLength) return new String(buf, offset, length, UTF8);
+
+		int hash = 1;
+		for (int i = offset; i < offset + length; i++) hash = 31 * hash + buf[i];
+
+		final int slot = (hash ^ (hash >>> 16)) & this.mask;
+		final Entry entry = this.entries[slot];
+		if (entry != null && entry.hash == hash && equals(entry.bytes, buf, offset, length)) {
+			return entry.value;
+		}
+
+		final byte[] bytes = new byte[length];
+		System.arraycopy(buf, offset, bytes, 0, length);
+		final String value = new String(bytes, UTF8);
+		this.entries[slot] = new Entry(hash, bytes, value);
+		return value;
+	}
+
+	/**
+	 * Removes all cached values.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.entries.length; i++) this.entries[i] = null;
+	}
+
+	private static boolean equals(byte[] bytes, byte[] buf, int offset, int length) {
+		if (bytes.length != length) return false;
+		for (int i = 0; i < length; i++) {
+			if (bytes[i] != buf[offset + i]) return false;
+		}
+		return true;
+	}
+}
@@ -671,11 +671,68 @@ public class EncodingUtils {
 	 * 		the generated id
 	 */
 	public static String generateId(Integer id, Date date) {
-		return String.format(
-			"%d_%2$tY%2$tm%2$td%2$tH%2$tM%2$tS",
-			id,
-			date
-		);		
+		if(id == null || date == null) {
+			return String.format(
+				"%d_%2$tY%2$tm%2$td%2$tH%2$tM%2$tS",
+				id,
+				date
+			);
+		}
+		
+		// avoid String.format, because this method is called for each program of a list
+		final Calendar cal = ID_CALENDAR.get();
+		cal.setTimeZone(TimeZone.getDefault());
+		cal.setTime(date);
+		
+		final StringBuilder buff = new StringBuilder(24);
+		buff.append(id.intValue()).append('_');
+		appendPadded(buff, cal.get(Calendar.YEAR), 4);
+		appendPadded(buff, cal.get(Calendar.MONTH) + 1, 2);
+		appendPadded(buff, cal.get(Calendar.DAY_OF_MONTH), 2);
+		appendPadded(buff, cal.get(Calendar.HOUR_OF_DAY), 2);
+		appendPadded(buff, cal.get(Calendar.MINUTE), 2);
+		appendPadded(buff, cal.get(Calendar.SECOND), 2);
+		return buff.toString();
+	}
+	
+	/**
+	 * A calendar used by {@link #generateId(Integer, Date)}.
+	 */
+	private static final ThreadLocal<Calendar> ID_CALENDAR = new ThreadLocal<Calendar>() {
+		@Override
+		protected Calendar initialValue() {
+			return new GregorianCalendar();
+		}
+	};
+	
+	private static void appendPadded(StringBuilder buff, int value, int length) {
+		final String valueString = Integer.toString(value);
+		for(int i=valueString.length(); i < length; i++) buff.append('0');
+		buff.append(valueString);
+	}
+	
+	/**
+	 * Generates a compact numeric key out of the given id and date.
+	 * <p>
+	 * The upper 32 bits of the key contain the id, the lower 32 bits the
+	 * date in seconds since epoch. The key therefore identifies the instant of the date,
+	 * independent of the default timezone.
+	 * <p>
+	 * Equal keys always result in equal ids generated via {@link #generateId(Integer, Date)},
+	 * but not the other way round: the id uses the local wall-clock time, which repeats when 
+	 * the daylight saving time ends. Two recordings starting one hour apart during this 
+	 * transition have the same id but different keys.
+	 * 
+	 * @param id
+	 * 		the channel id
+	 * @param date
+	 * 		the recording start date
+	 * @return
+	 * 		the generated key or {@code -1} if one of the arguments was {@code null}
+	 */
+	public static long generateKey(Integer id, Date date) {
+		if(id == null || date == null) return -1;
+		return ((long)id.intValue() << 32) | ((date.getTime() / 1000) & 0xFFFFFFFFL);
 	}
 	
 	/**
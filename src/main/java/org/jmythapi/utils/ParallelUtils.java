@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class provides functions to process index ranges in parallel.
+ * <p>
+ * A range of indices is split recursively into smaller ranges, which are processed by the
+ * {@link ForkJoinPool#commonPool() common fork/join pool}. The partial results are merged
+ * in index order, therefore the result is the same as if the range was processed sequentially.
+ * <p>
+ * Ranges smaller than {@link #PARALLEL_THRESHOLD} are always processed by the calling thread.
+ *
+ * <h3>Usage example:</h3>
+ *
+ * {@mythCodeExample <pre>
+ *    BitSet evenIndices = ParallelUtils.invoke(list.size(), new IRangeProcessor&lt;BitSet&gt;() &#123;
+ *       public BitSet process(int fromIdx, int toIdx) &#123;
+ *          BitSet result = new BitSet();
+ *          for(int i=fromIdx; i &lt; toIdx; i++) if(i % 2 == 0) result.set(i);
+ *          return result;
+ *       &#125;
+ *       public BitSet merge(BitSet left, BitSet right) &#123;
+ *          left.or(right);
+ *          return left;
+ *       &#125;
+ *    &#125;);
+ * </pre>}
+ */
+public class ParallelUtils {
+	/**
+	 * The minimum amount of elements required to process a range in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 8192;
+
+	/**
+	 * The minimum amount of elements processed by a single task.
+	 */
+	private static final int MIN_TASK_SIZE = 1024;
+
+	/**
+	 * Processes a range of indices.
+	 *
+	 * @param <R>
+	 * 		the type of the result
+	 */
+	public static interface IRangeProcessor<R> {
+		/**
+		 * Processes the given range.
+		 * <p>
+		 * This function may be called concurrently by multiple threads with different ranges.
+		 *
+		 * @param fromIdx
+		 * 		the first index to process, inclusive
+		 * @param toIdx
+		 * 		the last index to process, exclusive
+		 * @return
+		 * 		the partial result
+		 */
+		public R process(int fromIdx, int toIdx);
+
+		/**
+		 * Merges two partial results.
+		 *
+		 * @param left
+		 * 		the result of the lower range
+		 * @param right
+		 * 		the result of the directly following range
+		 * @return
+		 * 		the merged result
+		 */
+		public R merge(R left, R right);
+	}
+
+	private static final class RangeTask<R> extends RecursiveTask<R> {
+		private static final long serialVersionUID = 1L;
+
+		private final IRangeProcessor<R> processor;
+		private final int fromIdx;
+		private final int toIdx;
+		private final int taskSize;
+
+		RangeTask(IRangeProcessor<R> processor, int fromIdx, int toIdx, int taskSize) {
+			this.processor = processor;
+			this.fromIdx = fromIdx;
+			this.toIdx = toIdx;
+			this.taskSize = taskSize;
+		}
+
+		@Override
+		protected R compute() {
+			if (this.toIdx - this.fromIdx <= this.taskSize) {
+				return this.processor.process(this.fromIdx, this.toIdx);
+			}
+
+			final int middle = (this.fromIdx + this.toIdx) >>> 1;
+			final RangeTask<R> left = new RangeTask<R>(this.processor, this.fromIdx, middle, this.taskSize);
+			final RangeTask<R> right = new RangeTask<R>(this.processor, middle, this.toIdx, this.taskSize);
+
+			left.fork();
+			final R rightResult = right.compute();
+			final R leftResult = left.join();
+			return this.processor.merge(leftResult, rightResult);
+		}
+	}
+
+	/**
+	 * Checks if a range of the given size should be processed in parallel.
+	 *
+	 * @param size
+	 * 		the amount of elements
+	 * @return
+	 * 		{@code true} if the size is above the {@link #PARALLEL_THRESHOLD threshold} and
+	 * 		more than one processor is available
+	 */
+	public static boolean isParallel(int size) {
+		return size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+	}
+
+	/**
+	 * Processes the indices {@code 0} to {@code size-1}.
+	 * <p>
+	 * If the size is below the {@link #PARALLEL_THRESHOLD threshold}, the whole range is
+	 * processed by the calling thread. Otherwise the range is split and processed in parallel.
+	 *
+	 * @param <R>
+	 * 		the type of the result
+	 * @param size
+	 * 		the amount of elements
+	 * @param processor
+	 * 		the processor
+	 * @return
+	 * 		the merged result
+	 */
+	public static <R> R invoke(int size, IRangeProcessor<R> processor) {
+		if (processor == null) throw new NullPointerException("The processor must not be null");
+		if (!isParallel(size)) return processor.process(0, size);
+
+		// split the range into a few tasks per processor
+		final int parallelism = ForkJoinPool.getCommonPoolParallelism();
+		final int taskSize = Math.max(MIN_TASK_SIZE, size / (parallelism * 4));
+		return ForkJoinPool.commonPool().invoke(new RangeTask<R>(processor, 0, size, taskSize));
+	}
+
+	/**
+	 * This class should not be instantiated.
+	 */
+	private ParallelUtils() {
+	}
+}
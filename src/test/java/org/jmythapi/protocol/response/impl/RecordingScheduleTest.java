@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) ${year} Martin Thelian
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3.0 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ * For more information, please email thelian@users.sourceforge.net
+ */
+package org.jmythapi.protocol.response.impl;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.jmythapi.protocol.ProtocolVersion;
+import org.jmythapi.protocol.response.IProgramInfo;
+
+/**
+ * Compares the results of {@link RecordingSchedule} with a brute-force scan over a random schedule.
+ */
+public class RecordingScheduleTest extends TestCase {
+	private static final long SCHEDULE_START = 1300000000L;
+	private static final int SCHEDULE_SECONDS = 14 * 24 * 60 * 60;
+	
+	private List<IProgramInfo> programs;
+	private RecordingSchedule schedule;
+	
+	/**
+	 * The decoded recorder ids, start and end times of all programs, used by the brute-force scans.
+	 */
+	private int[] cardIds;
+	private long[] starts;
+	private long[] ends;
+	
+	@Override
+	protected void setUp() throws Exception {
+		final ProtocolVersion protoVersion = ProtocolVersion.PROTO_VERSION_63;
+		final Random random = new Random(5);
+		
+		// a random two-week schedule on four recorders
+		final List<IProgramInfo> recordings = new ArrayList<IProgramInfo>();
+		for (int i = 0; i < 3000; i++) {
+			final long start = SCHEDULE_START + random.nextInt(SCHEDULE_SECONDS);
+			final long end = start + 600 + random.nextInt(7200);
+			
+			final ProgramInfo program = new ProgramInfo(protoVersion);
+			program.setPropertyValueObject(IProgramInfo.Props.TITLE, "Title " + i);
+			program.setPropertyValueObject(IProgramInfo.Props.CARD_ID, Integer.valueOf(1 + random.nextInt(4)));
+			program.setPropertyValueObject(IProgramInfo.Props.REC_START_TIME, new Date(start * 1000));
+			program.setPropertyValueObject(IProgramInfo.Props.REC_END_TIME, new Date(end * 1000));
+			recordings.add(program);
+		}
+		
+		final ProgramInfoList list = ProgramInfoList.valueOf(protoVersion, recordings);
+		this.programs = list.asList();
+		this.schedule = RecordingSchedule.valueOf(list);
+		
+		final int size = this.programs.size();
+		this.cardIds = new int[size];
+		this.starts = new long[size];
+		this.ends = new long[size];
+		for (int i = 0; i < size; i++) {
+			final IProgramInfo program = this.programs.get(i);
+			this.cardIds[i] = program.getCardID().intValue();
+			this.starts[i] = program.getRecordingStartTime().getTime() / 1000;
+			this.ends[i] = program.getRecordingEndTime().getTime() / 1000;
+		}
+	}
+	
+	public void testFindConflicts() {
+		final Set<String> expected = new HashSet<String>();
+		for (int i = 0; i < this.cardIds.length; i++) {
+			for (int j = i + 1; j < this.cardIds.length; j++) {
+				if (this.cardIds[i] == this.cardIds[j] && this.starts[i] < this.ends[j] && this.starts[j] < this.ends[i]) {
+					expected.add(pairKey(this.programs.get(i), this.programs.get(j)));
+				}
+			}
+		}
+		
+		final List<IProgramInfo[]> conflicts = this.schedule.findConflicts();
+		final Set<String> actual = new HashSet<String>();
+		for (IProgramInfo[] conflict : conflicts) {
+			assertFalse(conflict[1].getRecordingStartTime().before(conflict[0].getRecordingStartTime()));
+			actual.add(pairKey(conflict[0], conflict[1]));
+		}
+		
+		assertFalse(expected.isEmpty());
+		assertEquals(expected.size(), conflicts.size());
+		assertEquals(expected, actual);
+	}
+	
+	public void testFindOverlapping() {
+		final Date from = new Date((SCHEDULE_START + 500000) * 1000);
+		final Date to = new Date((SCHEDULE_START + 600000) * 1000);
+		
+		final Set<String> expected = new HashSet<String>();
+		for (IProgramInfo program : this.programs) {
+			if (overlaps(program, from, to)) expected.add(program.getTitle());
+		}
+		
+		final Set<String> actual = new HashSet<String>();
+		for (IProgramInfo program : this.schedule.findOverlapping(from, to)) {
+			actual.add(program.getTitle());
+		}
+		
+		assertFalse(expected.isEmpty());
+		assertEquals(expected, actual);
+	}
+	
+	public void testFindActive() {
+		final Date time = new Date((SCHEDULE_START + 500000) * 1000);
+		
+		final Set<String> expected = new HashSet<String>();
+		for (IProgramInfo program : this.programs) {
+			if (!program.getRecordingStartTime().after(time) && program.getRecordingEndTime().after(time)) {
+				expected.add(program.getTitle());
+			}
+		}
+		
+		final Set<String> actual = new HashSet<String>();
+		for (IProgramInfo program : this.schedule.findActive(time)) {
+			actual.add(program.getTitle());
+		}
+		assertEquals(expected, actual);
+	}
+	
+	private static boolean overlaps(IProgramInfo program, Date from, Date to) {
+		return program.getRecordingStartTime().before(to) && from.before(program.getRecordingEndTime());
+	}
+	
+	private static String pairKey(IProgramInfo first, IProgramInfo second) {
+		final String title1 = first.getTitle();
+		final String title2 = second.getTitle();
+		return title1.compareTo(title2) < 0 ? title1 + "|" + title2 : title2 + "|" + title1;
+	}
+}